@@ -0,0 +1,63 @@
+package org.example.benchmarks;
+
+import collisions.llist.LList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opérations de base de {@link LList} : construction par <code>prepend</code>, recherche et parcours.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LListBenchmark {
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    private Integer[] elements;
+    private LList<Integer> list;
+
+    @Setup
+    public void setup() {
+        elements = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            // Valeurs distinctes, donc objets distincts : contains compare par identité
+            elements[i] = Integer.valueOf(i);
+        }
+        list = prependAll();
+    }
+
+    private LList<Integer> prependAll() {
+        LList<Integer> l = LList.empty();
+        for (Integer e : elements) {
+            l = l.prepend(e);
+        }
+        return l;
+    }
+
+    @Benchmark
+    public LList<Integer> prepend() {
+        return prependAll();
+    }
+
+    /**
+     * Pire cas : le premier élément ajouté est en fin de liste
+     */
+    @Benchmark
+    public boolean contains() {
+        return list.contains(elements[0]);
+    }
+
+    @Benchmark
+    public int iterate() {
+        int sum = 0;
+        for (Integer e : list) {
+            sum += e;
+        }
+        return sum;
+    }
+}
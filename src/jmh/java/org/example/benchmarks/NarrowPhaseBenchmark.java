@@ -0,0 +1,57 @@
+package org.example.benchmarks;
+
+import collisions.BoundingBox;
+import collisions.Simulation;
+import collisions.broadphase.BroadPhase;
+import collisions.broadphase.PairBuffer;
+import collisions.narrowphase.NarrowPhase;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Phase étroite seule, scalaire ou vectorielle, sur les paires candidates d'un cycle de la simulation par défaut
+ * (100 000 astéroïdes, écran 1600×900), produites par la grille. Les paires et les positions ne changent pas d'une
+ * mesure à l'autre. Le fork est lancé avec le module du Vector API.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", NarrowPhase.VECTOR_MODULE})
+public class NarrowPhaseBenchmark {
+    @Param({"scalar", "vector"})
+    public String narrowPhase;
+
+    @Param({"100000"})
+    public int asteroids;
+
+    /**
+     * Nombre de cycles simulés avant la mesure, pour partir d'un état où des astéroïdes se chevauchent
+     */
+    private static final int TICKS = 10;
+
+    private Simulation simulation;
+    private NarrowPhase phase;
+    private final PairBuffer pairs = new PairBuffer();
+    private int[] hits;
+
+    @Setup
+    public void setup() {
+        BoundingBox bounds = Simulation.boundsFor(1600, 900);
+        BroadPhase grid = BroadPhase.byName("grid", bounds, Simulation.RADIUS);
+        simulation = new Simulation(bounds, grid, asteroids, 2, Workloads.SEED);
+        for (int t = 0; t < TICKS; t++) {
+            simulation.step();
+        }
+        grid.findPairs(simulation.asteroids(), pairs);
+        hits = new int[pairs.size()];
+        phase = NarrowPhase.byName(narrowPhase);
+    }
+
+    @Benchmark
+    public int overlapping() {
+        return phase.overlapping(simulation.asteroids(), pairs, hits);
+    }
+}
@@ -0,0 +1,155 @@
+package org.example.benchmarks;
+
+import collisions.Asteroid;
+import collisions.BoundingBox;
+import collisions.Simulation;
+import collisions.quadtree.QuadTree;
+import collisions.quadtree.QuadTreeLeaf;
+import collisions.quadtree.ResultBuffer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requêtes {@link QuadTree#nearest} et {@link QuadTree#withinRadius} comparées à un parcours de tous les astéroïdes,
+ * pour des points tirés uniformément, à densité constante.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProximityBenchmark {
+    private static final int QUERIES = 256;
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    @Param({"1", "16"})
+    public int k;
+
+    /**
+     * Rayon des requêtes <code>withinRadius</code>, en rayons d'astéroïde
+     */
+    @Param({"10"})
+    public double radius;
+
+    private Asteroid[] asteroids;
+    private double[] points;
+    private QuadTree<Asteroid> tree;
+    private final ResultBuffer<Asteroid> results = new ResultBuffer<>();
+
+    /**
+     * Tas des <code>k</code> meilleurs candidats du parcours linéaire, le plus éloigné à la racine
+     */
+    private Asteroid[] heap;
+    private double[] distances;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(Workloads.SEED);
+        BoundingBox bounds = Workloads.bounds(size);
+        asteroids = Workloads.asteroids(size, bounds, random);
+        points = new double[2 * QUERIES];
+        for (int q = 0; q < QUERIES; q++) {
+            points[2 * q] = bounds.left() + random.nextDouble() * bounds.width();
+            points[2 * q + 1] = bounds.bottom() + random.nextDouble() * bounds.height();
+        }
+        tree = new QuadTreeLeaf<>(bounds);
+        for (Asteroid a : asteroids) {
+            tree = tree.add(a);
+        }
+        heap = new Asteroid[k];
+        distances = new double[k];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int nearestTree() {
+        int found = 0;
+        for (int q = 0; q < QUERIES; q++) {
+            results.clear();
+            tree.nearest(points[2 * q], points[2 * q + 1], k, results);
+            found += results.size();
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int nearestScan() {
+        int found = 0;
+        for (int q = 0; q < QUERIES; q++) {
+            found += nearestScan(points[2 * q], points[2 * q + 1]);
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int withinRadiusTree() {
+        double r = radius * Simulation.RADIUS;
+        int found = 0;
+        for (int q = 0; q < QUERIES; q++) {
+            results.clear();
+            tree.withinRadius(points[2 * q], points[2 * q + 1], r, results);
+            found += results.size();
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int withinRadiusScan() {
+        double r2 = radius * Simulation.RADIUS * radius * Simulation.RADIUS;
+        int found = 0;
+        for (int q = 0; q < QUERIES; q++) {
+            double x = points[2 * q];
+            double y = points[2 * q + 1];
+            results.clear();
+            for (Asteroid a : asteroids) {
+                if (a.distanceSquared(x, y) < r2) {
+                    results.accept(a);
+                }
+            }
+            found += results.size();
+        }
+        return found;
+    }
+
+    /**
+     * Parcours linéaire gardant les <code>k</code> plus proches dans un tas borné
+     */
+    private int nearestScan(double x, double y) {
+        int n = 0;
+        for (Asteroid a : asteroids) {
+            double d = a.distanceSquared(x, y);
+            if (n < k) {
+                int i = n++;
+                for (int parent; i > 0 && distances[parent = (i - 1) >>> 1] < d; i = parent) {
+                    heap[i] = heap[parent];
+                    distances[i] = distances[parent];
+                }
+                heap[i] = a;
+                distances[i] = d;
+            } else if (d < distances[0]) {
+                int i = 0;
+                for (int child; (child = 2 * i + 1) < n; i = child) {
+                    if (child + 1 < n && distances[child + 1] > distances[child]) {
+                        child++;
+                    }
+                    if (distances[child] <= d) {
+                        break;
+                    }
+                    heap[i] = heap[child];
+                    distances[i] = distances[child];
+                }
+                heap[i] = a;
+                distances[i] = d;
+            }
+        }
+        return n;
+    }
+}
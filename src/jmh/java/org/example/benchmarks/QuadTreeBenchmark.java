@@ -0,0 +1,133 @@
+package org.example.benchmarks;
+
+import collisions.Asteroid;
+import collisions.BoundingBox;
+import collisions.llist.LList;
+import collisions.quadtree.LinearQuadTree;
+import collisions.quadtree.LooseQuadTree;
+import collisions.quadtree.QuadTree;
+import collisions.quadtree.QuadTreeLeaf;
+import collisions.quadtree.ResultBuffer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction d'un {@link QuadTree}, d'un {@link LooseQuadTree} ou d'un {@link LinearQuadTree} et requêtes <code>intersecting</code>, à densité
+ * constante.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QuadTreeBenchmark {
+    private static final int QUERIES = 1024;
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private BoundingBox bounds;
+    private Asteroid[] asteroids;
+    private Asteroid[] queries;
+    private QuadTree<Asteroid> tree;
+    private LooseQuadTree<Asteroid> looseTree;
+    private LinearQuadTree<Asteroid> linearTree;
+    private final ResultBuffer<Asteroid> results = new ResultBuffer<>();
+
+    @Setup
+    public void setup() {
+        Random random = new Random(Workloads.SEED);
+        bounds = Workloads.bounds(size);
+        asteroids = Workloads.asteroids(size, bounds, random);
+        queries = new Asteroid[QUERIES];
+        for (int q = 0; q < QUERIES; q++) {
+            queries[q] = asteroids[random.nextInt(size)];
+        }
+        tree = build();
+        looseTree = buildLoose();
+        linearTree = new LinearQuadTree<>(bounds, ForkJoinPool.commonPool());
+        linearTree.build(asteroids, size);
+    }
+
+    /**
+     * Reconstruction en bloc : les tableaux de l'arbre sont réutilisés, comme lors d'une reconstruction à chaque cycle
+     */
+    @Benchmark
+    public LinearQuadTree<Asteroid> buildLinear() {
+        linearTree.build(asteroids, size);
+        return linearTree;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @OperationsPerInvocation(QUERIES)
+    public void intersectingLinear(Blackhole blackhole) {
+        for (Asteroid q : queries) {
+            linearTree.intersecting(q, blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public LooseQuadTree<Asteroid> buildLoose() {
+        LooseQuadTree<Asteroid> loose = new LooseQuadTree<>(bounds, 2);
+        for (Asteroid a : asteroids) {
+            loose.add(a);
+        }
+        return loose;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @OperationsPerInvocation(QUERIES)
+    public void intersectingLoose(Blackhole blackhole) {
+        for (Asteroid q : queries) {
+            looseTree.intersecting(q, blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public QuadTree<Asteroid> build() {
+        QuadTree<Asteroid> root = new QuadTreeLeaf<>(bounds);
+        for (Asteroid a : asteroids) {
+            root = root.add(a);
+        }
+        return root;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @OperationsPerInvocation(QUERIES)
+    public void intersecting(Blackhole blackhole) {
+        for (Asteroid q : queries) {
+            LList<Asteroid> result = tree.intersecting(q, LList.empty());
+            blackhole.consume(result);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @OperationsPerInvocation(QUERIES)
+    public void intersectingVisitor(Blackhole blackhole) {
+        for (Asteroid q : queries) {
+            tree.intersecting(q, blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @OperationsPerInvocation(QUERIES)
+    public int intersectingBuffer() {
+        int found = 0;
+        for (Asteroid q : queries) {
+            results.clear();
+            tree.intersecting(q, results);
+            found += results.size();
+        }
+        return found;
+    }
+}
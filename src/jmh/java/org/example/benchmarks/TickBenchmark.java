@@ -0,0 +1,40 @@
+package org.example.benchmarks;
+
+import collisions.BoundingBox;
+import collisions.Simulation;
+import collisions.broadphase.BroadPhase;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Un cycle complet de {@link Simulation#step()} pour chaque phase large, sur la simulation par défaut (écran
+ * 1600×900). La simulation part toujours de la même graine et avance d'une mesure à l'autre.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TickBenchmark {
+    @Param({"grid", "parallel", "sap", "quadtree", "loose", "linear", "verlet", "quadtree:auto", "loose:auto", "linear:auto"})
+    public String broadPhase;
+
+    @Param({"100000"})
+    public int asteroids;
+
+    private Simulation simulation;
+
+    @Setup
+    public void setup() {
+        BoundingBox bounds = Simulation.boundsFor(1600, 900);
+        simulation = new Simulation(bounds, BroadPhase.byName(broadPhase, bounds, Simulation.RADIUS), asteroids, 2, Workloads.SEED);
+    }
+
+    @Benchmark
+    public int step() {
+        simulation.step();
+        return simulation.collisions();
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.benchmarks;
+
+import collisions.Asteroid;
+import collisions.BoundingBox;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Arithmétique des {@link collisions.Vector} sur des paires d'astéroïdes qui se chevauchent : distance entre leurs
+ * coordonnées, qui alloue des vecteurs, comparée au calcul de {@link Asteroid#collision}. Celui-ci est fait sur les
+ * composantes, sans aucun vecteur, comme {@link collisions.AsteroidField#collision(int, int)} qu'utilise la simulation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VectorBenchmark {
+    private static final int PAIRS = 1024;
+
+    private Asteroid[] first;
+    private Asteroid[] second;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        Random random = new Random(Workloads.SEED);
+        first = asteroids(random);
+        second = asteroids(random);
+    }
+
+    private static Asteroid[] asteroids(Random random) {
+        return Workloads.asteroids(PAIRS, new BoundingBox(0, 4, 4, 0), random);
+    }
+
+    /**
+     * Paires recréées avant chaque appel : une collision modifie les deux vitesses, et un second appel sur la même
+     * paire, dont les astéroïdes s'éloignent désormais, ne calculerait plus aucune réponse
+     */
+    @State(Scope.Thread)
+    public static class FreshPairs {
+        private Asteroid[] first;
+        private Asteroid[] second;
+
+        @Setup(Level.Invocation)
+        public void setup() {
+            Random random = new Random(Workloads.SEED);
+            first = asteroids(random);
+            second = asteroids(random);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public void collision(FreshPairs pairs) {
+        for (int k = 0; k < PAIRS; k++) {
+            pairs.first[k].collision(pairs.second[k]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public double distance() {
+        double sum = 0;
+        for (int k = 0; k < PAIRS; k++) {
+            sum += first[k].getCoordinates().minus(second[k].getCoordinates()).length();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.benchmarks;
+
+import collisions.Asteroid;
+import collisions.BoundingBox;
+import collisions.Simulation;
+import collisions.Vector;
+
+import java.util.Random;
+
+/**
+ * Jeux de données des benchmarks, générés à partir de graines fixes pour que les résultats soient comparables d'un
+ * commit à l'autre.
+ * <p>
+ * Lancement : <code>mvn -P jmh package && java -jar target/benchmarks.jar</code>
+ */
+final class Workloads {
+    static final long SEED = 0;
+
+    /**
+     * Densité d'astéroïdes de la simulation par défaut : 100 000 astéroïdes sur un écran de 1600×900
+     */
+    static final double DENSITY = Simulation.TARGET_ASTEROIDS / Simulation.boundsFor(1600, 900).width()
+            / Simulation.boundsFor(1600, 900).height();
+
+    private Workloads() {
+    }
+
+    /**
+     * @return un espace carré contenant <code>n</code> astéroïdes à la densité de la simulation par défaut
+     */
+    static BoundingBox bounds(int n) {
+        double side = Math.sqrt(n / DENSITY);
+        return new BoundingBox(0, side, side, 0);
+    }
+
+    /**
+     * @return <code>n</code> astéroïdes répartis uniformément dans <code>bounds</code>
+     */
+    static Asteroid[] asteroids(int n, BoundingBox bounds, Random random) {
+        Asteroid[] asteroids = new Asteroid[n];
+        for (int i = 0; i < n; i++) {
+            double x = random.nextDouble() * bounds.width() + bounds.left();
+            double y = random.nextDouble() * bounds.height() + bounds.bottom();
+            double angle = random.nextDouble() * 2 * Math.PI;
+            asteroids[i] = new Asteroid(null, new Vector(x, y), random.nextDouble() * Simulation.MAX_SPEED, angle, Simulation.RADIUS);
+        }
+        return asteroids;
+    }
+}
@@ -20,26 +20,75 @@ public class Asteroid implements WithBB {
     private final SpriteSheet spriteSheet;
     private int spriteId;
 
-    private Vector coordinates;
-
-    private Vector movement;
+    /**
+     * Coordonnées et vecteur de déplacement, stockés en composantes pour que les déplacements et les collisions
+     * n'allouent aucun {@link Vector}
+     */
+    private double x;
+    private double y;
+    private double vx;
+    private double vy;
 
     private final double radius;
 
+    /**
+     * Bounding box à la position courante, construite à la première demande après chaque déplacement. Le quadtree
+     * n'en a pas besoin : il lit les bornes par {@link #left()}, {@link #right()}, {@link #top()} et
+     * {@link #bottom()}.
+     */
+    private BoundingBox boundingBox;
+
     public Asteroid(SpriteSheet sprites, Vector coordinates, double speed, double angle, double radius) {
         this.spriteSheet = sprites;
-        this.coordinates = coordinates;
-        this.movement = Vector.fromPolar(angle, speed);
+        this.x = coordinates.x();
+        this.y = coordinates.y();
+        this.vx = Math.cos(angle) * speed;
+        this.vy = Math.sin(angle) * speed;
         this.radius = radius;
         this.spriteId = Float.floatToIntBits((float) Math.random());
     }
 
     public BoundingBox boundingBox() {
-        return new BoundingBox(coordinates.x() - radius, coordinates.x() + radius, coordinates.y() + radius, coordinates.y() - radius);
+        if (boundingBox == null) {
+            boundingBox = new BoundingBox(x - radius, x + radius, y + radius, y - radius);
+        }
+        return boundingBox;
+    }
+
+    @Override
+    public double left() {
+        return x - radius;
+    }
+
+    @Override
+    public double right() {
+        return x + radius;
+    }
+
+    @Override
+    public double top() {
+        return y + radius;
+    }
+
+    @Override
+    public double bottom() {
+        return y - radius;
+    }
+
+    /**
+     * @return le carré de la distance entre le point (<code>x</code>, <code>y</code>) et le disque, nul si le point
+     * est à l'intérieur
+     */
+    @Override
+    public double distanceSquared(double x, double y) {
+        double dx = x - this.x;
+        double dy = y - this.y;
+        double d = Math.sqrt(dx * dx + dy * dy) - radius;
+        return d > 0 ? d * d : 0;
     }
 
     public Vector getCoordinates() {
-        return coordinates;
+        return new Vector(x, y);
     }
 
     /**
@@ -47,7 +96,18 @@ public class Asteroid implements WithBB {
      * à la hauteur de la surface simulée (typiquement un peu plus grande que la hauteur du graphique).
      */
     public void draw(Graphics g, double height) {
-        g.drawImage(spriteSheet.getImage(spriteId++ / 15), (int) (coordinates.x() - radius), (int) (height - coordinates.y() + radius), null);
+        g.drawImage(spriteSheet.getImage(spriteId++ / 15), (int) (x - radius), (int) (height - y + radius), null);
+    }
+
+    /**
+     * @return <code>true</code> si et seulement si <code>this</code> et <code>that</code> sont distants de moins de la
+     * somme de leurs rayons. Les distances sont comparées au carré, sans racine carrée.
+     */
+    public boolean overlaps(Asteroid that) {
+        double dx = that.x - this.x;
+        double dy = that.y - this.y;
+        double radii = this.radius + that.radius;
+        return dx * dx + dy * dy < radii * radii;
     }
 
     /**
@@ -56,22 +116,27 @@ public class Asteroid implements WithBB {
      */
     public void collision(Asteroid that) {
         //get the vector of the angle the balls collided and normalize it
-        var dist = that.coordinates.minus(this.coordinates).length();
-        var vecNorm = that.coordinates.minus(this.coordinates).multiply(1 / dist);
-        //get the relative velocity between the balls
-        var vecRelVelocity = this.movement.minus(that.movement);
+        double dx = that.x - this.x;
+        double dy = that.y - this.y;
+        double dist = Math.sqrt(dx * dx + dy * dy);
+        double nx = dx / dist;
+        double ny = dy / dist;
 
-        //calc speed after hit
-        double speed = vecRelVelocity.dotProduct(vecNorm);
+        //calc speed after hit, from the relative velocity between the balls
+        double speed = (this.vx - that.vx) * nx + (this.vy - that.vy) * ny;
         if (speed >= 0) {
             // update objects positions
-            this.movement = this.movement.minus(vecNorm.multiply(speed));
-            that.movement = that.movement.add(vecNorm.multiply(speed));
+            this.vx -= nx * speed;
+            this.vy -= ny * speed;
+            that.vx += nx * speed;
+            that.vy += ny * speed;
         }
     }
 
     public void move() {
-        coordinates = coordinates.add(movement);
+        x += vx;
+        y += vy;
+        boundingBox = null;
     }
 
     public double getRadius() {
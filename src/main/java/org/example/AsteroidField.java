@@ -0,0 +1,355 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Ensemble des astéroïdes simulés, stocké sous forme de tableaux parallèles de types primitifs (structure of arrays).
+ * <p>
+ * L'astéroïde d'indice <code>i</code> est décrit par ses coordonnées <code>(x[i], y[i])</code>, son vecteur de
+ * déplacement <code>(vx[i], vy[i])</code>, son rayon, l'indice de sa feuille de sprites et l'indice de son sprite
+ * courant. Contrairement à une liste d'{@link Asteroid}, aucun objet n'est alloué lors des déplacements ou des
+ * collisions : le tas reste stable quel que soit le nombre d'astéroïdes.
+ * <p>
+ * La suppression d'un astéroïde déplace le dernier astéroïde à sa place : les indices ne sont donc stables qu'entre
+ * deux suppressions.
+ */
+public class AsteroidField {
+    private double[] x;
+    private double[] y;
+    private double[] vx;
+    private double[] vy;
+    private double[] radius;
+    private int[] sheet;
+    private int[] sprite;
+    private long[] id;
+
+    /**
+     * Identifiant attribué au prochain astéroïde ajouté, et écart entre deux identifiants attribués
+     */
+    private long nextId;
+    private final int idStride;
+
+    /**
+     * Nombre d'astéroïdes actuellement stockés
+     */
+    private int size;
+
+    /**
+     * Construit un ensemble vide
+     *
+     * @param capacity nombre d'astéroïdes pouvant être stockés avant agrandissement des tableaux
+     */
+    public AsteroidField(int capacity) {
+        this(capacity, 0, 1);
+    }
+
+    /**
+     * Construit un ensemble vide dont les identifiants sont <code>firstId</code>, <code>firstId + idStride</code>,
+     * etc. : des ensembles de même <code>idStride</code> et de <code>firstId</code> distincts entre 0 et
+     * <code>idStride - 1</code> attribuent des identifiants tous différents.
+     *
+     * @param capacity nombre d'astéroïdes pouvant être stockés avant agrandissement des tableaux
+     */
+    public AsteroidField(int capacity, long firstId, int idStride) {
+        this.nextId = firstId;
+        this.idStride = idStride;
+        capacity = Math.max(capacity, 16);
+        x = new double[capacity];
+        y = new double[capacity];
+        vx = new double[capacity];
+        vy = new double[capacity];
+        radius = new double[capacity];
+        sheet = new int[capacity];
+        sprite = new int[capacity];
+        id = new long[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Ajoute un astéroïde à la fin de l'ensemble.
+     *
+     * @param speed norme du vecteur de déplacement
+     * @param angle direction du vecteur de déplacement, en radians
+     * @return l'indice de l'astéroïde ajouté
+     */
+    public int add(double x, double y, double speed, double angle, double radius, int sheet, int sprite) {
+        if (size == this.x.length) {
+            grow();
+        }
+        int i = size++;
+        reset(i, x, y, speed, angle, radius, sheet, sprite);
+        return i;
+    }
+
+    /**
+     * Remplace l'astéroïde d'indice <code>i</code> par un nouvel astéroïde, sans déplacer les autres. Le nouvel
+     * astéroïde reçoit un nouvel identifiant.
+     *
+     * @param speed norme du vecteur de déplacement
+     * @param angle direction du vecteur de déplacement, en radians
+     */
+    public void reset(int i, double x, double y, double speed, double angle, double radius, int sheet, int sprite) {
+        this.x[i] = x;
+        this.y[i] = y;
+        this.vx[i] = Math.cos(angle) * speed;
+        this.vy[i] = Math.sin(angle) * speed;
+        this.radius[i] = radius;
+        this.sheet[i] = sheet;
+        this.sprite[i] = sprite;
+        this.id[i] = nextId;
+        nextId += idStride;
+    }
+
+    /**
+     * Rétablit l'astéroïde d'indice <code>i</code> (à la fin de l'ensemble si <code>i</code> vaut sa taille) dans un
+     * état enregistré ou copié d'un autre ensemble, identifiant compris. Les identifiants attribués ensuite par cet
+     * ensemble ne tiennent pas compte de <code>id</code>.
+     */
+    public void restore(int i, long id, double x, double y, double vx, double vy, double radius, int sheet, int sprite) {
+        if (i == size) {
+            if (size == this.x.length) {
+                grow();
+            }
+            size++;
+        }
+        this.x[i] = x;
+        this.y[i] = y;
+        this.vx[i] = vx;
+        this.vy[i] = vy;
+        this.radius[i] = radius;
+        this.sheet[i] = sheet;
+        this.sprite[i] = sprite;
+        this.id[i] = id;
+    }
+
+    public void setPosition(int i, double x, double y) {
+        this.x[i] = x;
+        this.y[i] = y;
+    }
+
+    public void setVelocity(int i, double vx, double vy) {
+        this.vx[i] = vx;
+        this.vy[i] = vy;
+    }
+
+    /**
+     * Supprime les astéroïdes d'indice <code>size</code> et plus
+     */
+    public void truncate(int size) {
+        this.size = Math.min(this.size, size);
+    }
+
+    /**
+     * Supprime l'astéroïde d'indice <code>i</code> en le remplaçant par le dernier astéroïde de l'ensemble.
+     */
+    public void remove(int i) {
+        int last = --size;
+        x[i] = x[last];
+        y[i] = y[last];
+        vx[i] = vx[last];
+        vy[i] = vy[last];
+        radius[i] = radius[last];
+        sheet[i] = sheet[last];
+        sprite[i] = sprite[last];
+        id[i] = id[last];
+    }
+
+    private void grow() {
+        int capacity = x.length * 2;
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        vx = Arrays.copyOf(vx, capacity);
+        vy = Arrays.copyOf(vy, capacity);
+        radius = Arrays.copyOf(radius, capacity);
+        sheet = Arrays.copyOf(sheet, capacity);
+        sprite = Arrays.copyOf(sprite, capacity);
+        id = Arrays.copyOf(id, capacity);
+    }
+
+    /**
+     * @return l'identifiant de l'astéroïde <code>i</code>, unique sur toute la vie de l'ensemble. Contrairement à
+     * l'indice, il ne change pas lorsque l'astéroïde est déplacé par une suppression.
+     */
+    public long id(int i) {
+        return id[i];
+    }
+
+    public double x(int i) {
+        return x[i];
+    }
+
+    public double y(int i) {
+        return y[i];
+    }
+
+    public double vx(int i) {
+        return vx[i];
+    }
+
+    public double vy(int i) {
+        return vy[i];
+    }
+
+    public double radius(int i) {
+        return radius[i];
+    }
+
+    /**
+     * @return l'indice de la feuille de sprites de l'astéroïde <code>i</code>
+     */
+    public int sheet(int i) {
+        return sheet[i];
+    }
+
+    /**
+     * @return l'indice du sprite initial de l'astéroïde <code>i</code>. Le rendu y ajoute le nombre de frames
+     * affichées pour l'animer.
+     */
+    public int sprite(int i) {
+        return sprite[i];
+    }
+
+    /**
+     * @return la bounding box de l'astéroïde <code>i</code>, carré de côté 2×<code>radius</code> qui englobe le
+     * disque
+     */
+    public BoundingBox boundingBox(int i) {
+        double r = radius[i];
+        return new BoundingBox(x[i] - r, x[i] + r, y[i] + r, y[i] - r);
+    }
+
+    /**
+     * @return <code>true</code> si et seulement si la bounding box de l'astéroïde <code>i</code> intersecte
+     * <code>bb</code>
+     */
+    public boolean intersects(int i, BoundingBox bb) {
+        double r = radius[i];
+        return x[i] - r < bb.right() && bb.left() < x[i] + r && y[i] - r < bb.top() && bb.bottom() < y[i] + r;
+    }
+
+    /**
+     * @return <code>true</code> si et seulement si les astéroïdes <code>i</code> et <code>j</code> sont distants de
+     * moins de la somme de leurs rayons. Les distances sont comparées au carré, sans racine carrée.
+     */
+    public boolean overlaps(int i, int j) {
+        double dx = x[i] - x[j];
+        double dy = y[i] - y[j];
+        double radii = radius[i] + radius[j];
+        return dx * dx + dy * dy < radii * radii;
+    }
+
+    /**
+     * Met à jour les vecteurs mouvement des astéroïdes <code>i</code> et <code>j</code> suite à une collision.
+     * Même calcul que {@link Asteroid#collision}, sur les composantes des vecteurs.
+     */
+    public void collision(int i, int j) {
+        collision(i, j, 0);
+    }
+
+    /**
+     * Met à jour les vecteurs mouvement des astéroïdes <code>i</code> et <code>j</code> suite à une collision à
+     * l'instant <code>t</code> du cycle en cours, calculée à partir de leurs positions à cet instant.
+     * <p>
+     * Les positions sont corrigées de <code>(ancienne vitesse - nouvelle vitesse) × t</code> : le déplacement
+     * {@link #move(int, double)} qui suit, avec la nouvelle vitesse, amène alors chaque astéroïde là où il serait
+     * arrivé en suivant l'ancienne vitesse jusqu'au contact puis la nouvelle.
+     */
+    public void collision(int i, int j, double t) {
+        double dx = x[j] + vx[j] * t - (x[i] + vx[i] * t);
+        double dy = y[j] + vy[j] * t - (y[i] + vy[i] * t);
+        double dist = Math.sqrt(dx * dx + dy * dy);
+        double nx = dx / dist;
+        double ny = dy / dist;
+
+        double speed = (vx[i] - vx[j]) * nx + (vy[i] - vy[j]) * ny;
+        if (speed >= 0) {
+            vx[i] -= nx * speed;
+            vy[i] -= ny * speed;
+            vx[j] += nx * speed;
+            vy[j] += ny * speed;
+            if (t > 0) {
+                x[i] += nx * speed * t;
+                y[i] += ny * speed * t;
+                x[j] -= nx * speed * t;
+                y[j] -= ny * speed * t;
+            }
+        }
+    }
+
+    /**
+     * Instant du premier contact entre les astéroïdes <code>i</code> et <code>j</code> au cours d'un déplacement de
+     * durée <code>dt</code>, chacun suivant son vecteur mouvement. Les distances sont comparées au carré, et la seule
+     * racine carrée est celle de l'équation du second degré.
+     *
+     * @return l'instant du contact entre 0 et <code>dt</code>, 0 si les astéroïdes se chevauchent déjà, ou -1 s'ils
+     * ne se touchent pas pendant le déplacement
+     */
+    public double timeOfImpact(int i, int j, double dt) {
+        double dx = x[j] - x[i];
+        double dy = y[j] - y[i];
+        double radii = radius[i] + radius[j];
+        double c = dx * dx + dy * dy - radii * radii;
+        if (c < 0) {
+            return 0;
+        }
+        double wx = vx[j] - vx[i];
+        double wy = vy[j] - vy[i];
+        // Distance au carré |d + w t|² - radii² = a t² + 2 b t + c, qui ne décroît que si b < 0
+        double b = dx * wx + dy * wy;
+        if (b >= 0) {
+            return -1;
+        }
+        double a = wx * wx + wy * wy;
+        double discriminant = b * b - a * c;
+        if (discriminant < 0) {
+            return -1;
+        }
+        double t = (-b - Math.sqrt(discriminant)) / a;
+        return t <= dt ? t : -1;
+    }
+
+    /**
+     * Déplace l'astéroïde <code>i</code> d'un cycle de simulation
+     */
+    public void move(int i) {
+        x[i] += vx[i];
+        y[i] += vy[i];
+    }
+
+    /**
+     * Déplace l'astéroïde <code>i</code> de <code>dt</code> fois son vecteur mouvement
+     */
+    public void move(int i, double dt) {
+        x[i] += vx[i] * dt;
+        y[i] += vy[i] * dt;
+    }
+
+    /**
+     * Remplace le contenu de cet ensemble par les disques balayés par les astéroïdes de <code>field</code> au cours
+     * d'un déplacement de durée <code>dt</code> : chaque disque est centré au milieu du déplacement, et son rayon est
+     * augmenté de la moitié de la longueur du déplacement. Les indices et les identifiants sont ceux de
+     * <code>field</code>, les vecteurs mouvement sont nuls.
+     * <p>
+     * Deux astéroïdes qui se touchent au cours du déplacement ont des disques balayés qui se chevauchent : une phase
+     * large appliquée à cet ensemble produit toutes les paires qui peuvent entrer en collision pendant le cycle.
+     */
+    public void sweep(AsteroidField field, double dt) {
+        while (x.length < field.size) {
+            grow();
+        }
+        size = field.size;
+        for (int i = 0; i < size; i++) {
+            double dx = field.vx[i] * dt / 2;
+            double dy = field.vy[i] * dt / 2;
+            x[i] = field.x[i] + dx;
+            y[i] = field.y[i] + dy;
+            vx[i] = 0;
+            vy[i] = 0;
+            radius[i] = field.radius[i] + Math.sqrt(dx * dx + dy * dy);
+            id[i] = field.id[i];
+        }
+    }
+}
@@ -1,69 +1,59 @@
 package org.example;
 
-import collisions.llist.LList;
-import collisions.quadtree.QuadTree;
-import collisions.quadtree.QuadTreeLeaf;
+import collisions.broadphase.BroadPhase;
+import collisions.metrics.Phase;
+import collisions.metrics.PhaseEvent;
+import collisions.recording.Recorder;
+import collisions.render.Renderer;
 
 import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.awt.*;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
+import java.awt.image.BufferedImage;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Optional;
-import java.util.Random;
-import java.util.stream.Stream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Classe principale du simulateur.
+ * Classe principale du simulateur : affiche l'état d'une {@link Simulation}, qui avance à pas de temps fixe sur son
+ * propre thread (voir {@link SimulationLoop}). L'affichage dessine le dernier instantané publié, sans jamais bloquer
+ * la simulation.
  */
-public class Board extends JPanel implements ActionListener {
+public class Board extends JPanel {
     /**
-     * Nombre d'astéroïdes simulés
+     * Durée d'un cycle de simulation de référence en millisecondes. La propriété système <code>timestep</code> la
+     * multiplie, ainsi que le déplacement des astéroïdes à chaque cycle ; la propriété <code>ccd</code> active la
+     * détection continue des collisions (voir {@link Simulation}), et la propriété <code>record</code> enregistre
+     * chaque cycle dans le fichier qu'elle désigne (voir {@link Recorder}).
      */
-    private final static int TARGET_ASTEROIDS = 100000;
+    private final static int TICK_PERIOD = 2;
 
     /**
-     * Rayon des astéroïdes
+     * Moteur du simulateur. La phase large de la détection des collisions est choisie au démarrage par la propriété
+     * système <code>broadphase</code> (<code>grid</code> par défaut, <code>parallel</code>, <code>sap</code>,
+     * <code>quadtree</code>, <code>loose</code>, <code>linear</code>, <code>verlet</code> ou <code>bruteforce</code>,
+     * suivie au besoin de ses paramètres, voir {@link BroadPhase#byName}). La propriété <code>strips</code> la remplace
+     * par un découpage de l'espace en bandes calculées en parallèle.
      */
-    private final static double RADIUS = 2;
+    private final Simulation simulation;
 
     /**
-     * Vitesse maximale des astéroïdes (la vitesse initiale est un nombre aléatoire entre 0 et le max, donc de moyenne
-     * <code>maxSpeed/2</code>.
+     * Thread de simulation, qui publie les instantanés dessinés par {@link #paintComponent}
      */
-    private final static double MAX_SPEED = 1;
-
-    /**
-     * Délai d'attente entre deux frames en millisecondes
-     */
-    private final static int TIMER_DELAY = 2;
-
-    /**
-     * Liste des astéroïdes actuellement simulés
-     */
-    private java.util.List<Asteroid> asteroids;
-
-    /**
-     * Coordonnées complètes de l'espace simulé.
-     * On le fait un peu plus grand que la fenêtre afin que les astéroïdes puissent "sortir" de manière fluide
-     * sans qu'on puisse les voir disparaitre.
-     */
-    private final BoundingBox boundingBox;
-
-    /**
-     * Générateur aléatoire. Une seed fixe permet d'avoir toujours la même simulation (permet de reproduire les bugs).
-     */
-    private final static Random random = new Random(0);
+    private final SimulationLoop loop;
 
     /**
      * Heure de démarrage de la simulation, utilisé pour le calcul des FPS
      */
     private final long startTime;
     /**
-     * Nombre de frames calculées depuis le démarrage de la simulation, utilisé pour le calcul des FPS
+     * Nombre de frames affichées depuis le démarrage de la simulation, utilisé pour le calcul des FPS et l'animation
+     * des sprites
      */
     private long frames = 0;
 
@@ -71,10 +61,12 @@ public class Board extends JPanel implements ActionListener {
      * Feuilles de sprites utilisées pour le dessin des astéroïdes
      */
     private final java.util.List<SpriteSheet> spriteSheets;
+
     /**
-     * Image de fond
+     * Dessin des astéroïdes et du fond, choisi au démarrage par la propriété système <code>renderer</code>
+     * (<code>java2d</code> par défaut, <code>atlas</code> ou <code>raster</code>)
      */
-    private final Image background;
+    private final Renderer renderer;
 
     /**
      * Construit le simulateur
@@ -84,80 +76,59 @@ public class Board extends JPanel implements ActionListener {
      * @throws IOException si les images ne peuvent être chargées
      */
     public Board(int width, int height) throws IOException {
-        this.boundingBox = new BoundingBox(-2 * RADIUS, width + 2 * RADIUS, height + 2 * RADIUS, -2 * RADIUS);
-
         var backgroundFile = Optional.ofNullable(Board.class.getResource("background.png")).orElseThrow(FileNotFoundException::new);
 
-        this.background = ImageIO.read(backgroundFile).getScaledInstance(width, height, Image.SCALE_DEFAULT);
-        this.spriteSheets = Arrays.asList(SpriteSheet.fromResource("asteroid_sheet_1.png", 3 * RADIUS, 4, 8), SpriteSheet.fromResource("asteroid_sheet_2.png", 3 * RADIUS, 4, 8));
-
-        this.asteroids = Stream.generate(this::randomAsteroid).limit(TARGET_ASTEROIDS).toList();
-
-        // Le timer permet de déclencher la boucle de simulation {@link Board#actionPerformed} à intervalles fixes
-        Timer timer = new Timer(TIMER_DELAY, this);
+        // Le fond est mis à l'échelle une fois pour toutes, et non à chaque frame
+        BufferedImage background = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g = background.createGraphics();
+        g.drawImage(ImageIO.read(backgroundFile).getScaledInstance(width, height, Image.SCALE_DEFAULT), 0, 0, null);
+        g.dispose();
+        this.spriteSheets = Arrays.asList(SpriteSheet.fromResource("asteroid_sheet_1.png", 3 * Simulation.RADIUS, 4, 8), SpriteSheet.fromResource("asteroid_sheet_2.png", 3 * Simulation.RADIUS, 4, 8));
+        this.renderer = Renderer.byName(System.getProperty("renderer", "java2d"), background, spriteSheets);
+
+        BoundingBox boundingBox = Simulation.boundsFor(width, height);
+        double timestep = Double.parseDouble(System.getProperty("timestep", "1"));
+        boolean continuous = Boolean.getBoolean("ccd");
+        int strips = Integer.getInteger("strips", 0);
+        if (strips > 0) {
+            if (continuous) {
+                throw new IllegalArgumentException("Continuous collisions are not supported with strips");
+            }
+            this.simulation = new Simulation(boundingBox, strips, ForkJoinPool.commonPool(), Simulation.TARGET_ASTEROIDS,
+                    spriteSheets.size(), 0, timestep);
+        } else {
+            BroadPhase broadPhase = BroadPhase.byName(System.getProperty("broadphase", "grid"), boundingBox,
+                    Simulation.broadPhaseRadius(timestep, continuous));
+            this.simulation = new Simulation(boundingBox, broadPhase, Simulation.TARGET_ASTEROIDS, spriteSheets.size(), 0,
+                    timestep, continuous);
+        }
+        simulation.metrics().register("board");
+
+        // Chaque cycle publié déclenche un affichage ; Swing regroupe les demandes si l'affichage prend du retard
+        Runnable onPublish = this::repaint;
+        String recordFile = System.getProperty("record");
+        if (recordFile != null) {
+            // Enregistrement de chaque cycle, l'index est écrit à l'arrêt de la JVM
+            Recorder recorder = new Recorder(Path.of(recordFile), simulation, Recorder.KEYFRAME_INTERVAL);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    recorder.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }, "recorder"));
+            onPublish = () -> {
+                try {
+                    recorder.record();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                repaint();
+            };
+        }
+        this.loop = new SimulationLoop(simulation, Math.round(TICK_PERIOD * 1000 * timestep), TimeUnit.MICROSECONDS, onPublish);
         this.startTime = System.nanoTime();
-        timer.start();
-    }
-
-    /**
-     * Supprime les astéroïdes sortis de l'espace de simulation
-     */
-    private void clearAsteroids() {
-        asteroids = asteroids.stream().filter(a -> boundingBox.intersects(a.boundingBox())).toList();
-    }
-
-
-    /**
-     * @param edge indique le bord : 0 = bas, 1 = droit, 2 = haut, 3 = gauche
-     * @return une coordonnée aléotoire située sur un bord de la <code>BoundingBox bb</code> donnée.
-     */
-    private Vector randomEdge(int edge) {
-        return switch (edge) {
-            // BOTTOM
-            case 0 -> new Vector(random.nextDouble() * boundingBox.width() + boundingBox.left(), boundingBox.bottom());
-            // RIGHT
-            case 1 ->
-                    new Vector(boundingBox.right(), random.nextDouble() * boundingBox.height() + boundingBox.bottom());
-            // TOP
-            case 2 -> new Vector(random.nextDouble() * boundingBox.width() + boundingBox.left(), boundingBox.top());
-            // LEFT
-            case 3 -> new Vector(boundingBox.left(), random.nextDouble() * boundingBox.height() + boundingBox.bottom());
-            default -> throw new IllegalArgumentException();
-        };
-    }
-
-
-    /**
-     * @return un astéroïde aléatoire dans l'espace de simulation. Les coordonnées, la direction et la vitesse
-     * (entre 0 et maxSpeed) sont aléatoires.
-     */
-    private Asteroid randomAsteroid() {
-        double x = random.nextDouble() * boundingBox.width() + boundingBox.left();
-        double y = random.nextDouble() * boundingBox.height() + boundingBox.bottom();
-        double angle = random.nextDouble() * 2 * Math.PI;
-        SpriteSheet sheet = spriteSheets.get(random.nextInt(spriteSheets.size()));
-        return new Asteroid(sheet, new Vector(x, y), random.nextDouble() * MAX_SPEED, angle, RADIUS);
-    }
-
-
-    /**
-     * @return un astéroïde aléatoire situé sur un bord de l'espace de simulation. La direction est forcément vers
-     * l'intérieur de l'espace de simulation.
-     */
-    private Asteroid randomEdgeAsteroid() {
-        int startEdge = random.nextInt(4);
-        double angle = random.nextDouble() * Math.PI + startEdge * Math.PI / 2;
-        Vector position = randomEdge(startEdge);
-        SpriteSheet sheet = spriteSheets.get(random.nextInt(spriteSheets.size()));
-        return new Asteroid(sheet, position, random.nextDouble() * MAX_SPEED, angle, RADIUS);
-    }
-
-    /**
-     * Génère des astéroïdes sur le bord de l'écran jusqu'à ce que le nombre d'astéroïdes souhaité soit atteint.
-     */
-    private void completeAsteroids() {
-        var nbMissingAsteroids = TARGET_ASTEROIDS - asteroids.size();
-        asteroids = Stream.concat(asteroids.stream(), Stream.generate(this::randomEdgeAsteroid).limit(nbMissingAsteroids)).toList();
+        loop.start();
     }
 
     /**
@@ -165,16 +136,13 @@ public class Board extends JPanel implements ActionListener {
      */
     @Override
     public void paintComponent(Graphics graphics) {
+        long start = System.nanoTime();
+        Snapshot asteroids = loop.latest();
+        PhaseEvent event = new PhaseEvent(Phase.PAINT, asteroids.tick(), asteroids.size());
+        event.begin();
         super.paintComponent(graphics);
-        // Dessin du fond
-        Graphics2D g2d = (Graphics2D) graphics;
-        g2d.drawImage(background, 0, 0, null);
-
-        // Dessin des astéroïdes
-        double screenHeight = boundingBox.top() - 2 * RADIUS;
-        for (Asteroid a : asteroids) {
-            a.draw(g2d, screenHeight);
-        }
+        // Dessin du fond et des astéroïdes
+        renderer.render((Graphics2D) graphics, asteroids, frames);
 
         // Calcul et affichage des FPS dans la console
         long now = System.nanoTime();
@@ -183,75 +151,7 @@ public class Board extends JPanel implements ActionListener {
             System.out.println(frames * 1e9 / (now - startTime));
         }
         Toolkit.getDefaultToolkit().sync();
-    }
-
-    /**
-     * Détection des collisions : tous les astérodides distants de moins de la somme de leurs rayons sont
-     * nécessairement en collision.
-     */
-    private void detectCollisions() {
-        if (true){
-            QuadTree root = new QuadTreeLeaf(boundingBox);
-            for (Asteroid a : asteroids) {
-                root.add(a);
-            }
-//            root.draw( (Graphics2D) this.getGraphics(), boundingBox.top());
-            for (Asteroid a : asteroids) {
-                LList<Asteroid> collisions = root.intersecting(a, LList.empty());
-                for (Asteroid n : collisions) {
-                    if (a != n) {
-                        var dist = a.getCoordinates().minus(n.getCoordinates()).length();
-                        if (dist < a.getRadius() + n.getRadius()) {
-                            // Collision !
-                            a.collision(n);
-                        }
-                    }
-                }
-            }
-        }else {
-            for (int i = 0; i < asteroids.size(); i++) {
-                var a = asteroids.get(i);
-                for (int j = i + 1; j < asteroids.size(); j++) {
-                    var n = asteroids.get(j);
-                    var dist = a.getCoordinates().minus(n.getCoordinates()).length();
-                    if (dist < a.getRadius() + n.getRadius()) {
-                        // Collision !
-                        a.collision(n);
-                    }
-                }
-            }
-        }
-
-
-
-    }
-
-    /**
-     * Déplace tous les astéroïdes d'un cycle de simulation
-     */
-    private void moveAsteroids() {
-        for (Asteroid a : asteroids) {
-            a.move();
-        }
-    }
-
-    /**
-     * Actions à faire à chaque boucle de simulation.
-     * Cette méthode est déclenchée par le Timer.
-     * <ol>
-     * <li> détection des collisions
-     * <li> déplacement des astéroïdes
-     * <li> suppression des astéroïdes hors de l'espace de simulation
-     * <li> génération de nouveaux astéroïdes en remplacement
-     * <li> affichage
-     * </ol>
-     */
-    @Override
-    public void actionPerformed(ActionEvent actionEvent) {
-        detectCollisions();
-        moveAsteroids();
-        clearAsteroids();
-        completeAsteroids();
-        repaint();
+        simulation.metrics().recordPhase(Phase.PAINT, System.nanoTime() - start);
+        event.commit();
     }
 }
@@ -1,5 +1,7 @@
 package org.example;
 
+import collisions.quadtree.WithBB;
+
 import java.awt.*;
 
 /**
@@ -10,13 +12,18 @@ import java.awt.*;
  * @param top    coordonnée y du côté haut du rectangle
  * @param bottom coordonnée y du côté bas du rectangle
  */
-public record BoundingBox(double left, double right, double top, double bottom) {
+public record BoundingBox(double left, double right, double top, double bottom) implements WithBB {
     public BoundingBox {
         if (left >= right || top <= bottom) {
             throw new IllegalArgumentException(String.format("Illegal BoundingBox: (%f, %f, %f, %f)", left, right, bottom, top));
         }
     }
 
+    @Override
+    public BoundingBox boundingBox() {
+        return this;
+    }
+
     /**
      * @return largeur du rectangle (right - left)
      */
@@ -0,0 +1,127 @@
+package org.example;
+
+import collisions.broadphase.BroadPhase;
+import collisions.broadphase.VerletListBroadPhase;
+import collisions.recording.Recorder;
+import collisions.streaming.StateServer;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Lance la simulation sans affichage, aussi vite que possible, et affiche son débit.
+ * <p>
+ * Usage : <code>HeadlessRunner [cycles] [astéroïdes]</code>, avec les propriétés système <code>broadphase</code>
+ * (voir {@link BroadPhase#byName}), <code>width</code> et <code>height</code> (taille de l'écran simulé, 1600×900 par
+ * défaut), <code>seed</code>, <code>timestep</code> (durée d'un cycle en cycles de référence, 1 par défaut) et
+ * <code>ccd</code> (détection continue des collisions), <code>strips</code> (nombre de bandes calculées en
+ * parallèle, voir {@link collisions.domain.DomainDecomposition}, à la place de la phase large), <code>record</code> (fichier dans lequel enregistrer les
+ * cycles, voir {@link Recorder}), et <code>stream</code> (port sur lequel diffuser l'état aux
+ * {@link collisions.streaming.StreamViewer}, au plus <code>streamfps</code> fois par seconde, voir
+ * {@link StateServer}). La phase étroite est vectorielle si la JVM est lancée avec
+ * <code>--add-modules jdk.incubator.vector</code> (voir {@link collisions.narrowphase.NarrowPhase#best()}).
+ */
+public class HeadlessRunner {
+
+    public static void main(String[] args) throws IOException {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int nbAsteroids = args.length > 1 ? Integer.parseInt(args[1]) : Simulation.TARGET_ASTEROIDS;
+        int width = Integer.getInteger("width", 1600);
+        int height = Integer.getInteger("height", 900);
+        String broadPhaseName = System.getProperty("broadphase", "grid");
+        double timestep = Double.parseDouble(System.getProperty("timestep", "1"));
+        boolean continuous = Boolean.getBoolean("ccd");
+
+        BoundingBox boundingBox = Simulation.boundsFor(width, height);
+        int strips = Integer.getInteger("strips", 0);
+        // Deux feuilles de sprites, comme le Board, pour consommer les mêmes nombres aléatoires
+        Simulation simulation;
+        if (strips > 0) {
+            if (continuous) {
+                throw new IllegalArgumentException("Continuous collisions are not supported with strips");
+            }
+            broadPhaseName = strips + " strips";
+            simulation = new Simulation(boundingBox, strips, ForkJoinPool.commonPool(), nbAsteroids, 2, Long.getLong("seed", 0), timestep);
+        } else {
+            BroadPhase broadPhase = BroadPhase.byName(broadPhaseName, boundingBox, Simulation.broadPhaseRadius(timestep, continuous));
+            simulation = new Simulation(boundingBox, broadPhase, nbAsteroids, 2, Long.getLong("seed", 0), timestep, continuous);
+        }
+        simulation.metrics().register("headless");
+        String recordFile = System.getProperty("record");
+        Recorder recorder = recordFile == null ? null : new Recorder(Path.of(recordFile), simulation, Recorder.KEYFRAME_INTERVAL);
+        Integer streamPort = Integer.getInteger("stream");
+        StateServer server = streamPort == null ? null : new StateServer(new InetSocketAddress(streamPort), width, height,
+                Integer.getInteger("streamfps", StateServer.DEFAULT_FPS));
+
+        long candidatePairs = 0;
+        long collisions = 0;
+        long spawned = 0;
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int t = 0; t < ticks; t++) {
+            simulation.step();
+            if (recorder != null) {
+                recorder.record();
+            }
+            if (server != null) {
+                server.publish(simulation.asteroids(), simulation.ticks());
+            }
+            candidatePairs += simulation.candidatePairs();
+            collisions += simulation.collisions();
+            spawned += simulation.spawned();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long allocated = allocatedBytes() - allocatedBefore;
+        if (recorder != null) {
+            recorder.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+
+        System.out.printf("broad phase        %s%n", broadPhaseName);
+        System.out.printf("narrow phase       %s%n", continuous ? "time of impact" : simulation.narrowPhase().getClass().getSimpleName());
+        System.out.printf("asteroids          %d%n", nbAsteroids);
+        System.out.printf("timestep           %s%s%n", timestep, continuous ? ", continuous" : "");
+        System.out.printf("ticks              %d in %.2f s%n", ticks, seconds);
+        System.out.printf("ticks/s            %.1f%n", ticks / seconds);
+        System.out.printf("candidates/tick    %.1f%n", (double) candidatePairs / ticks);
+        System.out.printf("collisions/tick    %.1f%n", (double) collisions / ticks);
+        System.out.printf("spawned/tick       %.1f%n", (double) spawned / ticks);
+        if (simulation.broadPhase() instanceof VerletListBroadPhase verlet) {
+            System.out.printf("neighbour lists    %d rebuilds, every %.1f ticks%n", verlet.rebuilds(),
+                    (double) ticks / Math.max(1, verlet.rebuilds()));
+        }
+        if (server != null) {
+            System.out.printf("stream             %d frames sent, %d dropped, %.1f MB%n", server.framesSent(),
+                    server.framesDropped(), server.bytesSent() / 1e6);
+        }
+        if (allocatedBefore >= 0) {
+            System.out.printf("allocation         %.1f MB/s, %.0f B/tick%n", allocated / seconds / 1e6, (double) allocated / ticks);
+        }
+        System.out.printf("tick p50/p99/max   %.0f / %.0f / %.0f us%n", simulation.metrics().getTickLatencyP50Micros(),
+                simulation.metrics().getTickLatencyP99Micros(), simulation.metrics().getTickLatencyMaxMicros());
+        simulation.metrics().getPhaseLatencyP99Micros().forEach((phase, p99) -> System.out.printf("%-18s p99 %.0f us%n", phase, p99));
+    }
+
+    /**
+     * @return le nombre d'octets alloués par les threads vivants depuis leur démarrage, ou -1 si la JVM ne le mesure
+     * pas
+     */
+    private static long allocatedBytes() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads)
+                || !threads.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        long total = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (bytes > 0) {
+                total += bytes;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,485 @@
+package org.example;
+
+import collisions.broadphase.BroadPhase;
+import collisions.broadphase.PairBuffer;
+import collisions.domain.DomainDecomposition;
+import collisions.metrics.Phase;
+import collisions.metrics.PhaseEvent;
+import collisions.metrics.SimulationMetrics;
+import collisions.metrics.TickEvent;
+import collisions.narrowphase.NarrowPhase;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Moteur du simulateur, indépendant de l'affichage : possède l'état des astéroïdes et calcule un cycle de simulation
+ * à chaque appel de {@link #step()}.
+ */
+public class Simulation {
+    /**
+     * Nombre d'astéroïdes simulés par défaut
+     */
+    public final static int TARGET_ASTEROIDS = 100000;
+
+    /**
+     * Rayon des astéroïdes
+     */
+    public final static double RADIUS = 2;
+
+    /**
+     * Vitesse maximale des astéroïdes (la vitesse initiale est un nombre aléatoire entre 0 et le max, donc de moyenne
+     * <code>maxSpeed/2</code>.
+     */
+    public final static double MAX_SPEED = 1;
+
+    /**
+     * Nombre d'astéroïdes maintenus dans l'espace de simulation
+     */
+    private final int targetAsteroids;
+
+    /**
+     * Astéroïdes actuellement simulés
+     */
+    private final AsteroidField asteroids;
+
+    /**
+     * Phase large de la détection des collisions, ou <code>null</code> si l'espace est découpé en bandes
+     */
+    private final BroadPhase broadPhase;
+
+    /**
+     * Phase étroite en mode discret, qui teste d'un coup les paires candidates du cycle accumulées dans
+     * <code>pairs</code>, et rangs des paires en collision
+     */
+    private final NarrowPhase narrowPhase = NarrowPhase.best();
+    private final PairBuffer pairs = new PairBuffer();
+    private int[] hits = new int[64];
+
+    /**
+     * Découpage de l'espace en bandes qui calculent chacune tout le cycle de leurs astéroïdes, ou <code>null</code>
+     */
+    private final DomainDecomposition domains;
+
+    /**
+     * Coordonnées complètes de l'espace simulé.
+     */
+    private final BoundingBox boundingBox;
+
+    /**
+     * Nombre de feuilles de sprites parmi lesquelles choisir celle de chaque astéroïde
+     */
+    private final int nbSheets;
+
+    /**
+     * Durée d'un cycle, en multiples du cycle de référence : chaque astéroïde avance de <code>timestep</code> fois son
+     * vecteur mouvement à chaque cycle
+     */
+    private final double timestep;
+
+    /**
+     * Disques balayés par les astéroïdes pendant le cycle en cours, transmis à la phase large en mode continu, ou
+     * <code>null</code> en mode discret
+     */
+    private final AsteroidField swept;
+
+    /**
+     * Générateur aléatoire. Une seed fixe permet d'avoir toujours la même simulation (permet de reproduire les bugs).
+     */
+    private final Random random;
+
+    /**
+     * Nombre de cycles calculés depuis la création
+     */
+    private long ticks = 0;
+
+    /**
+     * Statistiques du dernier cycle : paires candidates testées, collisions, astéroïdes supprimés et générés
+     */
+    private int candidatePairs;
+    private int collisions;
+    private int culled;
+    private int spawned;
+
+    /**
+     * Durées des cycles et de leurs phases
+     */
+    private final SimulationMetrics metrics = new SimulationMetrics();
+
+    /**
+     * Début de la phase en cours, voir {@link #beginPhase}
+     */
+    private long phaseStart;
+
+    /**
+     * Construit une simulation peuplée de <code>targetAsteroids</code> astéroïdes aléatoires.
+     *
+     * @param nbSheets nombre de feuilles de sprites disponibles pour le rendu
+     * @param seed     graine du générateur aléatoire
+     */
+    public Simulation(BoundingBox boundingBox, BroadPhase broadPhase, int targetAsteroids, int nbSheets, long seed) {
+        this(boundingBox, broadPhase, targetAsteroids, nbSheets, seed, 1, false);
+    }
+
+    /**
+     * Construit une simulation peuplée de <code>targetAsteroids</code> astéroïdes aléatoires, dont les cycles durent
+     * <code>timestep</code> cycles de référence.
+     * <p>
+     * En mode discret, les collisions ne sont cherchées qu'aux positions atteintes à chaque cycle : au-delà d'un
+     * <code>timestep</code> de l'ordre de <code>RADIUS / MAX_SPEED</code>, des astéroïdes se traversent sans se
+     * voir. En mode continu, la phase large travaille sur les disques balayés pendant le cycle, et la phase étroite
+     * calcule l'instant du contact de chaque paire ; la phase large doit alors être construite pour le rayon
+     * {@link #broadPhaseRadius}.
+     *
+     * @param nbSheets   nombre de feuilles de sprites disponibles pour le rendu
+     * @param seed       graine du générateur aléatoire
+     * @param continuous <code>true</code> pour la détection continue des collisions
+     */
+    public Simulation(BoundingBox boundingBox, BroadPhase broadPhase, int targetAsteroids, int nbSheets, long seed,
+                      double timestep, boolean continuous) {
+        this(boundingBox, broadPhase, 0, null, targetAsteroids, nbSheets, seed, timestep, continuous);
+    }
+
+    /**
+     * Construit une simulation peuplée de <code>targetAsteroids</code> astéroïdes aléatoires, dont l'espace est
+     * découpé en <code>strips</code> bandes verticales calculées en parallèle sur <code>pool</code> (voir
+     * {@link DomainDecomposition}). La population initiale est la même qu'en l'absence de découpage, mais chaque
+     * bande tire ensuite ses propres nombres aléatoires : la suite de la simulation en diffère.
+     * {@link #asteroids()} est une copie de l'état des bandes, refaite à chaque cycle.
+     *
+     * @param nbSheets nombre de feuilles de sprites disponibles pour le rendu
+     * @param seed     graine des générateurs aléatoires
+     */
+    public Simulation(BoundingBox boundingBox, int strips, ForkJoinPool pool, int targetAsteroids, int nbSheets, long seed,
+                      double timestep) {
+        this(boundingBox, null, strips, pool, targetAsteroids, nbSheets, seed, timestep, false);
+    }
+
+    private Simulation(BoundingBox boundingBox, BroadPhase broadPhase, int strips, ForkJoinPool pool, int targetAsteroids,
+                       int nbSheets, long seed, double timestep, boolean continuous) {
+        if (!(timestep > 0)) {
+            throw new IllegalArgumentException("Timestep must be positive: " + timestep);
+        }
+        this.timestep = timestep;
+        this.swept = continuous ? new AsteroidField(targetAsteroids) : null;
+        this.boundingBox = boundingBox;
+        this.broadPhase = broadPhase;
+        this.targetAsteroids = targetAsteroids;
+        this.nbSheets = nbSheets;
+        this.random = new Random(seed);
+        this.asteroids = new AsteroidField(targetAsteroids);
+        for (int i = 0; i < targetAsteroids; i++) {
+            addRandomAsteroid();
+        }
+        this.domains = pool == null ? null
+                : new DomainDecomposition(boundingBox, strips, pool, asteroids, RADIUS, timestep, nbSheets, seed);
+    }
+
+    /**
+     * @return l'espace de simulation correspondant à un écran de <code>width</code>×<code>height</code> pixels.
+     * On le fait un peu plus grand que la fenêtre afin que les astéroïdes puissent "sortir" de manière fluide
+     * sans qu'on puisse les voir disparaitre.
+     */
+    public static BoundingBox boundsFor(int width, int height) {
+        return new BoundingBox(-2 * RADIUS, width + 2 * RADIUS, height + 2 * RADIUS, -2 * RADIUS);
+    }
+
+    /**
+     * @return le rayon pour lequel construire la phase large d'une simulation de cycles de durée
+     * <code>timestep</code>. En mode continu, c'est le rayon des disques balayés, avec une marge pour les astéroïdes
+     * accélérés par les collisions au-delà de <code>MAX_SPEED</code>.
+     */
+    public static double broadPhaseRadius(double timestep, boolean continuous) {
+        return continuous ? RADIUS + MAX_SPEED * timestep : RADIUS;
+    }
+
+    public AsteroidField asteroids() {
+        return asteroids;
+    }
+
+    public BoundingBox boundingBox() {
+        return boundingBox;
+    }
+
+    public BroadPhase broadPhase() {
+        return broadPhase;
+    }
+
+    /**
+     * @return le découpage de l'espace en bandes, ou <code>null</code>
+     */
+    public DomainDecomposition domains() {
+        return domains;
+    }
+
+    public long ticks() {
+        return ticks;
+    }
+
+    public double timestep() {
+        return timestep;
+    }
+
+    public boolean continuous() {
+        return swept != null;
+    }
+
+    /**
+     * @return la phase étroite utilisée en mode discret, vectorielle si le module du Vector API est chargé
+     */
+    public NarrowPhase narrowPhase() {
+        return narrowPhase;
+    }
+
+    public SimulationMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * @return le nombre de paires candidates testées par la phase étroite lors du dernier cycle
+     */
+    public int candidatePairs() {
+        return candidatePairs;
+    }
+
+    /**
+     * @return le nombre de collisions détectées lors du dernier cycle
+     */
+    public int collisions() {
+        return collisions;
+    }
+
+    /**
+     * @return le nombre d'astéroïdes supprimés lors du dernier cycle
+     */
+    public int culled() {
+        return culled;
+    }
+
+    /**
+     * @return le nombre d'astéroïdes générés lors du dernier cycle
+     */
+    public int spawned() {
+        return spawned;
+    }
+
+    /**
+     * Calcule un cycle de simulation :
+     * <ol>
+     * <li> phase large de la détection des collisions : énumération des paires candidates
+     * <li> phase étroite : test exact des paires candidates et réponse aux collisions
+     * <li> déplacement des astéroïdes de <code>timestep</code> fois leur vecteur mouvement, et remplacement sur place de ceux sortis de l'espace de simulation par de
+     * nouveaux astéroïdes sur un bord
+     * <li> génération de nouveaux astéroïdes si la population est incomplète
+     * </ol>
+     * Chaque phase est mesurée par un événement JFR {@link PhaseEvent} et dans les {@link #metrics()}.
+     */
+    public void step() {
+        long start = System.nanoTime();
+        TickEvent tickEvent = new TickEvent(ticks + 1);
+        tickEvent.begin();
+        candidatePairs = 0;
+        collisions = 0;
+
+        PhaseEvent event = beginPhase(Phase.BROAD_PHASE);
+        findCandidatePairs();
+        endPhase(event, Phase.BROAD_PHASE);
+
+        event = beginPhase(Phase.NARROW_PHASE);
+        resolveCollisions();
+        endPhase(event, Phase.NARROW_PHASE);
+
+        event = beginPhase(Phase.UPDATE);
+        updateAsteroids();
+        endPhase(event, Phase.UPDATE);
+
+        event = beginPhase(Phase.SPAWN);
+        completeAsteroids();
+        endPhase(event, Phase.SPAWN);
+
+        ticks++;
+        tickEvent.end();
+        if (tickEvent.shouldCommit()) {
+            tickEvent.set(asteroids.size(), candidatePairs, collisions, culled, spawned);
+            tickEvent.commit();
+        }
+        metrics.recordTick(System.nanoTime() - start, this);
+    }
+
+    private PhaseEvent beginPhase(Phase phase) {
+        PhaseEvent event = new PhaseEvent(phase, ticks + 1, asteroids.size());
+        event.begin();
+        phaseStart = System.nanoTime();
+        return event;
+    }
+
+    private void endPhase(PhaseEvent event, Phase phase) {
+        metrics.recordPhase(phase, System.nanoTime() - phaseStart);
+        event.commit();
+    }
+
+    /**
+     * Déplace tous les astéroïdes d'un cycle de simulation, et remplace sur place chaque astéroïde sorti de l'espace
+     * de simulation par un nouvel astéroïde sur un bord. La population reste constante, aucun astéroïde ne change
+     * d'indice et rien n'est alloué. Avec un découpage en bandes, chaque bande traite ses astéroïdes, et l'état des
+     * bandes est ensuite recopié dans {@link #asteroids()}.
+     */
+    private void updateAsteroids() {
+        if (domains != null) {
+            domains.update();
+            domains.gather(asteroids);
+            culled = domains.respawned();
+            spawned = culled;
+            return;
+        }
+        int replaced = 0;
+        for (int i = 0; i < asteroids.size(); i++) {
+            asteroids.move(i, timestep);
+            if (!asteroids.intersects(i, boundingBox)) {
+                randomEdgeAsteroid(i);
+                replaced++;
+            }
+        }
+        culled = replaced;
+        spawned = replaced;
+    }
+
+
+    /**
+     * Ajoute un astéroïde aléatoire dans l'espace de simulation. Les coordonnées, la direction et la vitesse
+     * (entre 0 et maxSpeed) sont aléatoires.
+     */
+    private void addRandomAsteroid() {
+        double x = random.nextDouble() * boundingBox.width() + boundingBox.left();
+        double y = random.nextDouble() * boundingBox.height() + boundingBox.bottom();
+        double angle = random.nextDouble() * 2 * Math.PI;
+        int sheet = random.nextInt(nbSheets);
+        asteroids.add(x, y, random.nextDouble() * MAX_SPEED, angle, RADIUS, sheet, randomSprite());
+    }
+
+
+    /**
+     * Place un astéroïde aléatoire sur un bord de l'espace de simulation, à l'indice <code>i</code> (à la fin de
+     * l'ensemble si <code>i</code> vaut sa taille). La direction est forcément vers l'intérieur de l'espace de
+     * simulation.
+     */
+    private void randomEdgeAsteroid(int i) {
+        randomEdgeAsteroid(asteroids, i, boundingBox, random, nbSheets);
+    }
+
+    /**
+     * Place un astéroïde aléatoire, tiré par <code>random</code>, sur un bord de <code>boundingBox</code>, à l'indice
+     * <code>i</code> de <code>asteroids</code> (à la fin de l'ensemble si <code>i</code> vaut sa taille). La direction
+     * est forcément vers l'intérieur de <code>boundingBox</code>.
+     */
+    public static void randomEdgeAsteroid(AsteroidField asteroids, int i, BoundingBox boundingBox, Random random, int nbSheets) {
+        // Bord de départ : 0 = bas, 1 = droit, 2 = haut, 3 = gauche
+        int startEdge = random.nextInt(4);
+        double angle = random.nextDouble() * Math.PI + startEdge * Math.PI / 2;
+        double along = random.nextDouble();
+        double x = switch (startEdge) {
+            case 0, 2 -> along * boundingBox.width() + boundingBox.left();
+            case 1 -> boundingBox.right();
+            case 3 -> boundingBox.left();
+            default -> throw new IllegalArgumentException();
+        };
+        double y = switch (startEdge) {
+            case 0 -> boundingBox.bottom();
+            case 2 -> boundingBox.top();
+            case 1, 3 -> along * boundingBox.height() + boundingBox.bottom();
+            default -> throw new IllegalArgumentException();
+        };
+        int sheet = random.nextInt(nbSheets);
+        double speed = random.nextDouble() * MAX_SPEED;
+        if (i == asteroids.size()) {
+            asteroids.add(x, y, speed, angle, RADIUS, sheet, randomSprite());
+        } else {
+            asteroids.reset(i, x, y, speed, angle, RADIUS, sheet, randomSprite());
+        }
+    }
+
+    /**
+     * @return un indice de sprite initial aléatoire, pour que les astéroïdes ne soient pas animés en phase
+     */
+    private static int randomSprite() {
+        return Float.floatToIntBits((float) Math.random());
+    }
+
+    /**
+     * Génère des astéroïdes sur le bord de l'écran jusqu'à ce que le nombre d'astéroïdes souhaité soit atteint.
+     */
+    private void completeAsteroids() {
+        spawned += Math.max(0, targetAsteroids - asteroids.size());
+        while (asteroids.size() < targetAsteroids) {
+            randomEdgeAsteroid(asteroids.size());
+        }
+    }
+
+    /**
+     * Phase large de la détection des collisions : les paires candidates sont rangées dans <code>pairs</code>. Tous
+     * les astérodides distants de moins de la somme de leurs rayons y figurent ; en mode continu, tous ceux qui le
+     * seront à un instant du cycle, d'après leurs disques balayés.
+     */
+    private void findCandidatePairs() {
+        if (domains != null) {
+            domains.findPairs();
+            return;
+        }
+        pairs.clear();
+        if (swept == null) {
+            broadPhase.findPairs(asteroids, pairs);
+        } else {
+            swept.sweep(asteroids, timestep);
+            broadPhase.findPairs(swept, pairs);
+        }
+    }
+
+    /**
+     * Phase étroite de la détection des collisions : test exact des paires candidates et réponse aux collisions, dans
+     * l'ordre des paires
+     */
+    private void resolveCollisions() {
+        if (domains != null) {
+            domains.collide();
+            candidatePairs = domains.candidatePairs();
+            collisions = domains.collisions();
+        } else if (swept == null) {
+            discreteNarrowPhase();
+        } else {
+            candidatePairs = pairs.size();
+            for (int p = 0; p < pairs.size(); p++) {
+                continuousNarrowPhase(pairs.first(p), pairs.second(p));
+            }
+        }
+    }
+
+    /**
+     * Test exact des paires candidates produites par la phase large, puis réponse aux collisions dans l'ordre des
+     * paires. Les réponses ne modifiant que les vitesses, le résultat est celui d'un test paire par paire.
+     */
+    private void discreteNarrowPhase() {
+        if (hits.length < pairs.size()) {
+            hits = new int[pairs.size() + (pairs.size() >> 1)];
+        }
+        candidatePairs = pairs.size();
+        collisions = narrowPhase.overlapping(asteroids, pairs, hits);
+        for (int h = 0; h < collisions; h++) {
+            // Collision !
+            asteroids.collision(pairs.first(hits[h]), pairs.second(hits[h]));
+        }
+    }
+
+    /**
+     * Test exact d'une paire candidate en mode continu : les astéroïdes entrent en collision s'ils se touchent avant
+     * la fin du cycle, et leurs vitesses sont mises à jour à partir de leurs positions au contact. Les paires sont
+     * celles des disques balayés en début de cycle : un astéroïde dévié par une collision ne rencontre qu'au cycle
+     * suivant les astéroïdes que sa nouvelle trajectoire atteint hors de son disque balayé.
+     */
+    private void continuousNarrowPhase(int i, int j) {
+        double t = asteroids.timeOfImpact(i, j, timestep);
+        if (t >= 0) {
+            collisions++;
+            asteroids.collision(i, j, t);
+        }
+    }
+}
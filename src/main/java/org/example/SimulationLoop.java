@@ -0,0 +1,123 @@
+package org.example;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fait avancer une {@link Simulation} à pas de temps fixe sur son propre thread, et publie après chaque cycle un
+ * {@link Snapshot} de son état pour l'affichage.
+ * <p>
+ * Les instantanés sont triplement tamponnés : le thread de simulation remplit toujours un instantané que personne ne
+ * lit, puis l'échange avec l'instantané publié ; l'affichage échange l'instantané qu'il vient de dessiner avec
+ * l'instantané publié s'il est plus récent. Aucun des deux threads n'attend l'autre : si l'affichage est plus lent que
+ * la simulation, il saute simplement des cycles.
+ */
+public class SimulationLoop implements Runnable {
+    /**
+     * Retard, en nombre de cycles, au-delà duquel la simulation abandonne le rattrapage et repart de l'instant présent
+     */
+    private static final int MAX_LAG = 10;
+
+    private final Simulation simulation;
+
+    /**
+     * Durée d'un cycle de simulation, en nanosecondes
+     */
+    private final long period;
+
+    /**
+     * Appelé par le thread de simulation après chaque publication
+     */
+    private final Runnable onPublish;
+
+    /**
+     * Instantané publié, le plus récent sauf si l'affichage vient d'y déposer le sien
+     */
+    private final AtomicReference<Snapshot> published = new AtomicReference<>(new Snapshot());
+
+    /**
+     * Instantané en cours de remplissage, propriété du thread de simulation
+     */
+    private Snapshot back = new Snapshot();
+
+    /**
+     * Instantané en cours de dessin, propriété du thread d'affichage
+     */
+    private Snapshot front = new Snapshot();
+
+    private volatile Thread thread;
+
+    /**
+     * @param period    durée d'un cycle de simulation
+     * @param onPublish action exécutée par le thread de simulation après chaque cycle, typiquement
+     *                  {@link java.awt.Component#repaint()}
+     */
+    public SimulationLoop(Simulation simulation, long period, TimeUnit unit, Runnable onPublish) {
+        this.simulation = simulation;
+        this.period = unit.toNanos(period);
+        this.onPublish = onPublish;
+        publish();
+    }
+
+    /**
+     * Démarre le thread de simulation
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            throw new IllegalStateException("Simulation already started");
+        }
+        thread = new Thread(this, "simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Arrête le thread de simulation à la fin du cycle en cours
+     */
+    public synchronized void stop() {
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    @Override
+    public void run() {
+        long next = System.nanoTime();
+        while (!Thread.currentThread().isInterrupted()) {
+            simulation.step();
+            publish();
+            onPublish.run();
+
+            next += period;
+            long now = System.nanoTime();
+            if (now - next > MAX_LAG * period) {
+                // Trop en retard : inutile d'enchaîner les cycles pour rattraper
+                next = now;
+            }
+            while (next - now > 0 && !Thread.currentThread().isInterrupted()) {
+                LockSupport.parkNanos(next - now);
+                now = System.nanoTime();
+            }
+        }
+    }
+
+    private void publish() {
+        back.capture(simulation.asteroids(), simulation.ticks());
+        back = published.getAndSet(back);
+    }
+
+    /**
+     * Doit toujours être appelé depuis le même thread (celui de l'affichage). L'instantané renvoyé n'est pas modifié
+     * avant l'appel suivant.
+     *
+     * @return l'instantané le plus récent
+     */
+    public Snapshot latest() {
+        if (published.get().tick() > front.tick()) {
+            front = published.getAndSet(front);
+        }
+        return front;
+    }
+}
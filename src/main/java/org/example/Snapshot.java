@@ -0,0 +1,80 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Copie de l'état affichable d'un {@link AsteroidField} à la fin d'un cycle de simulation : positions, rayons,
+ * feuilles et sprites initiaux des astéroïdes.
+ * <p>
+ * Un instantané n'est modifié que par le thread de simulation, tant qu'il n'est pas publié, et n'est lu que par le
+ * thread d'affichage une fois publié : voir {@link SimulationLoop}. Ses tableaux sont réutilisés d'une copie à l'autre.
+ */
+public class Snapshot {
+    private double[] x = new double[0];
+    private double[] y = new double[0];
+    private double[] radius = new double[0];
+    private int[] sheet = new int[0];
+    private int[] sprite = new int[0];
+
+    /**
+     * Nombre d'astéroïdes copiés
+     */
+    private int size;
+
+    /**
+     * Numéro du cycle de simulation copié, -1 pour un instantané vide
+     */
+    private long tick = -1;
+
+    /**
+     * Remplace le contenu de l'instantané par l'état actuel de <code>field</code>.
+     */
+    public void capture(AsteroidField field, long tick) {
+        int n = field.size();
+        if (x.length < n) {
+            int capacity = Math.max(n, x.length * 2);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            radius = Arrays.copyOf(radius, capacity);
+            sheet = Arrays.copyOf(sheet, capacity);
+            sprite = Arrays.copyOf(sprite, capacity);
+        }
+        for (int i = 0; i < n; i++) {
+            x[i] = field.x(i);
+            y[i] = field.y(i);
+            radius[i] = field.radius(i);
+            sheet[i] = field.sheet(i);
+            sprite[i] = field.sprite(i);
+        }
+        this.size = n;
+        this.tick = tick;
+    }
+
+    public long tick() {
+        return tick;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double x(int i) {
+        return x[i];
+    }
+
+    public double y(int i) {
+        return y[i];
+    }
+
+    public double radius(int i) {
+        return radius[i];
+    }
+
+    public int sheet(int i) {
+        return sheet[i];
+    }
+
+    public int sprite(int i) {
+        return sprite[i];
+    }
+}
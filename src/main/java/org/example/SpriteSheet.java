@@ -40,4 +40,11 @@ public class SpriteSheet {
     public Image getImage(int id) {
         return sprites.get(id % sprites.size());
     }
+
+    /**
+     * @return le nombre de sprites de l'animation
+     */
+    public int size() {
+        return sprites.size();
+    }
 }
@@ -0,0 +1,42 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Entiers positifs à longueur variable (varints), communs aux enregistrements et au flux réseau : 7 bits par octet,
+ * le bit de poids fort indiquant qu'un octet suit. Une valeur de type <code>long</code> occupe au plus 10 octets, une
+ * valeur de type <code>int</code> au plus 5.
+ */
+public final class VarInts {
+    private VarInts() {
+    }
+
+    /**
+     * Écrit <code>value</code>, positif, sur 7 bits par octet, le bit de poids fort indiquant qu'un octet suit
+     */
+    public static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    public static long getVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * @throws ArithmeticException si la valeur lue ne tient pas dans un <code>int</code>
+     */
+    public static int getVarInt(ByteBuffer buffer) {
+        return Math.toIntExact(getVarLong(buffer));
+    }
+}
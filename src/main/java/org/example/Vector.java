@@ -6,7 +6,7 @@ package org.example;
  */
 public record Vector(double x, double y) {
     public Vector minus(Vector that) {
-        return add(that.negate());
+        return new Vector(this.x - that.x, this.y - that.y);
     }
 
     public Vector multiply(double factor) {
@@ -0,0 +1,60 @@
+package org.example.broadphase;
+
+import collisions.AsteroidField;
+import collisions.BoundingBox;
+import collisions.quadtree.QuadTreeParameters;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Phase large de la détection des collisions : produit, à moindre coût, un sur-ensemble des paires d'astéroïdes
+ * susceptibles d'être en collision. Chaque paire candidate est transmise une seule fois au <code>consumer</code>,
+ * avec deux indices distincts ; le test exact (phase étroite) reste à la charge de l'appelant.
+ */
+public interface BroadPhase {
+
+    void findPairs(AsteroidField field, PairConsumer consumer);
+
+    /**
+     * Construit l'implémentation désignée par <code>name</code>, pour des astéroïdes de rayon au plus
+     * <code>radius</code> évoluant dans <code>bounds</code>.
+     * <p>
+     * Le nom des quadtrees peut être suivi de leur forme (voir {@link QuadTreeParameters#parse}), par exemple
+     * <code>quadtree:16:8</code> pour une capacité de 16 objets et une profondeur maximale de 8, ou de
+     * <code>:auto</code> pour une forme ajustée à la charge par un {@link collisions.quadtree.QuadTreeTuner}.
+     *
+     * <code>verlet</code> peut être suivi de la marge des listes de voisins, en multiples de <code>radius</code>
+     * (voir {@link VerletListBroadPhase}), par exemple <code>verlet:2</code>.
+     *
+     * @param name <code>grid</code>, <code>parallel</code>, <code>sap</code>, <code>quadtree</code>,
+     *             <code>loose</code>, <code>linear</code>, <code>verlet</code> ou <code>bruteforce</code>
+     */
+    static BroadPhase byName(String name, BoundingBox bounds, double radius) {
+        int colon = name.indexOf(':');
+        String base = colon < 0 ? name : name.substring(0, colon);
+        String shape = colon < 0 ? null : name.substring(colon + 1);
+        if (base.equals("verlet")) {
+            try {
+                double skin = shape == null ? VerletListBroadPhase.SKIN : Double.parseDouble(shape);
+                return new VerletListBroadPhase(bounds, radius, skin * radius);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid skin: " + name, e);
+            }
+        }
+        if (shape != null && !(base.equals("quadtree") || base.equals("loose") || base.equals("linear"))) {
+            throw new IllegalArgumentException("Broad phase " + base + " has no shape: " + name);
+        }
+        boolean adaptive = "auto".equals(shape);
+        QuadTreeParameters parameters = shape == null || adaptive ? new QuadTreeParameters() : QuadTreeParameters.parse(shape);
+        return switch (base) {
+            case "grid" -> new SpatialHashGrid(bounds, 2 * radius);
+            case "parallel" -> new ParallelGridBroadPhase(new SpatialHashGrid(bounds, 2 * radius), ForkJoinPool.commonPool());
+            case "sap" -> new SweepAndPrune();
+            case "quadtree" -> new QuadTreeBroadPhase(bounds, parameters, adaptive);
+            case "loose" -> new LooseQuadTreeBroadPhase(bounds, LooseQuadTreeBroadPhase.LOOSENESS, parameters, adaptive);
+            case "linear" -> new LinearQuadTreeBroadPhase(bounds, ForkJoinPool.commonPool(), parameters, adaptive);
+            case "bruteforce" -> new BruteForceBroadPhase();
+            default -> throw new IllegalArgumentException("Unknown broad phase: " + name);
+        };
+    }
+}
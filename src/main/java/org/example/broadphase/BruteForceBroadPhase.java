@@ -0,0 +1,18 @@
+package org.example.broadphase;
+
+import collisions.AsteroidField;
+
+/**
+ * Toutes les paires d'astéroïdes sont candidates : O(n²), utile uniquement comme référence.
+ */
+public class BruteForceBroadPhase implements BroadPhase {
+
+    @Override
+    public void findPairs(AsteroidField field, PairConsumer consumer) {
+        for (int i = 0; i < field.size(); i++) {
+            for (int j = i + 1; j < field.size(); j++) {
+                consumer.accept(i, j);
+            }
+        }
+    }
+}
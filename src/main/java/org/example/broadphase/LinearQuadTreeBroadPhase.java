@@ -0,0 +1,67 @@
+package org.example.broadphase;
+
+import collisions.AsteroidField;
+import collisions.BoundingBox;
+import collisions.quadtree.LinearQuadTree;
+import collisions.quadtree.QuadTreeParameters;
+import collisions.quadtree.QuadTreeTuner;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Phase large par quadtree linéaire ({@link LinearQuadTree}). Contrairement à {@link QuadTreeBroadPhase}, l'arbre
+ * n'est pas mis à jour astéroïde par astéroïde : il est reconstruit en bloc à chaque cycle, par un tri parallèle des
+ * codes de Morton, à partir des emplacements de l'{@link AsteroidField}. En mode adaptatif, sa forme est ajustée à
+ * la durée mesurée de la construction et de l'énumération des paires, et change dès la construction suivante.
+ */
+public class LinearQuadTreeBroadPhase implements BroadPhase {
+    private final LinearQuadTree<Slot> tree;
+    private Slot[] slots = new Slot[0];
+
+    /**
+     * Ajustement des paramètres de l'arbre, ou <code>null</code> si leurs valeurs sont fixes
+     */
+    private final QuadTreeTuner tuner;
+
+    public LinearQuadTreeBroadPhase(BoundingBox bounds, ForkJoinPool pool) {
+        this(bounds, pool, new QuadTreeParameters(), false);
+    }
+
+    /**
+     * @param parameters forme de l'arbre, valeurs de départ en mode adaptatif
+     * @param adaptive   <code>true</code> pour ajuster <code>parameters</code> à la charge mesurée
+     */
+    public LinearQuadTreeBroadPhase(BoundingBox bounds, ForkJoinPool pool, QuadTreeParameters parameters, boolean adaptive) {
+        this.tree = new LinearQuadTree<>(bounds, pool, parameters);
+        this.tuner = adaptive ? new QuadTreeTuner(parameters, bounds) : null;
+    }
+
+    @Override
+    public void findPairs(AsteroidField field, PairConsumer consumer) {
+        int n = field.size();
+        if (slots.length < n) {
+            int previous = slots.length;
+            slots = Arrays.copyOf(slots, Math.max(n, previous * 2));
+            for (int i = previous; i < slots.length; i++) {
+                slots[i] = new Slot(i);
+            }
+        }
+        long start = System.nanoTime();
+        double objectSize = 0;
+        for (int i = 0; i < n; i++) {
+            slots[i].set(field);
+            objectSize = Math.max(objectSize, 2 * field.radius(i));
+        }
+        tree.build(slots, n);
+        long built = System.nanoTime();
+        tree.forEachPair((a, b) -> consumer.accept(a.index, b.index));
+        if (tuner != null) {
+            tuner.observe(n, objectSize, built - start, System.nanoTime() - built);
+        }
+    }
+
+    public LinearQuadTree<?> tree() {
+        return tree;
+    }
+}
@@ -0,0 +1,127 @@
+package org.example.broadphase;
+
+import collisions.AsteroidField;
+import collisions.BoundingBox;
+import collisions.quadtree.LooseQuadTree;
+import collisions.quadtree.QuadTreeParameters;
+import collisions.quadtree.QuadTreeTuner;
+
+import java.util.Arrays;
+
+/**
+ * Phase large par quadtree lâche ({@link LooseQuadTree}), conservé d'un cycle à l'autre comme celui de
+ * {@link QuadTreeBroadPhase}. Chaque astéroïde n'est rangé que dans un nœud, et un astéroïde dont le centre reste dans
+ * la même case ne modifie pas l'arbre. Sa forme peut être ajustée à la charge comme celle de
+ * {@link QuadTreeBroadPhase}.
+ */
+public class LooseQuadTreeBroadPhase implements BroadPhase {
+    /**
+     * Rapport par défaut entre les bornes lâches d'un nœud et sa case
+     */
+    public static final double LOOSENESS = 2;
+
+    private final BoundingBox bounds;
+    private final double looseness;
+    private final QuadTreeParameters parameters;
+    private LooseQuadTree<Slot> tree;
+
+    /**
+     * Ajustement de <code>parameters</code>, ou <code>null</code> si leurs valeurs sont fixes
+     */
+    private final QuadTreeTuner tuner;
+
+    /**
+     * Taille du plus grand astéroïde au dernier cycle
+     */
+    private double objectSize;
+
+    /**
+     * Ensemble dont les emplacements sont actuellement dans l'arbre
+     */
+    private AsteroidField field;
+
+    private Slot[] slots = new Slot[0];
+
+    /**
+     * Bornes d'un emplacement avant sa mise à jour
+     */
+    private final Slot previous = new Slot(-1);
+
+    /**
+     * Nombre d'emplacements présents dans l'arbre
+     */
+    private int tracked;
+
+    public LooseQuadTreeBroadPhase(BoundingBox bounds, double looseness) {
+        this(bounds, looseness, new QuadTreeParameters(), false);
+    }
+
+    /**
+     * @param parameters forme de l'arbre, valeurs de départ en mode adaptatif
+     * @param adaptive   <code>true</code> pour ajuster <code>parameters</code> à la charge mesurée
+     */
+    public LooseQuadTreeBroadPhase(BoundingBox bounds, double looseness, QuadTreeParameters parameters, boolean adaptive) {
+        this.bounds = bounds;
+        this.looseness = looseness;
+        this.parameters = parameters;
+        this.tuner = adaptive ? new QuadTreeTuner(parameters, bounds) : null;
+        this.tree = new LooseQuadTree<>(bounds, looseness, parameters);
+    }
+
+    @Override
+    public void findPairs(AsteroidField field, PairConsumer consumer) {
+        long start = System.nanoTime();
+        synchronize(field);
+        long updated = System.nanoTime();
+        tree.forEachPair((a, b) -> consumer.accept(a.index, b.index));
+        if (tuner != null) {
+            tuner.observe(field.size(), objectSize, updated - start, System.nanoTime() - updated);
+        }
+    }
+
+    /**
+     * Met l'arbre en accord avec les positions actuelles des astéroïdes de <code>field</code>.
+     */
+    private void synchronize(AsteroidField field) {
+        if (this.field != field) {
+            this.field = field;
+            tree = new LooseQuadTree<>(bounds, looseness, parameters);
+            tracked = 0;
+            for (Slot slot : slots) {
+                slot.inTree = false;
+            }
+        }
+        int n = field.size();
+        if (slots.length < n) {
+            int previous = slots.length;
+            slots = Arrays.copyOf(slots, Math.max(n, previous * 2));
+            for (int i = previous; i < slots.length; i++) {
+                slots[i] = new Slot(i);
+            }
+        }
+        objectSize = 0;
+        for (int i = 0; i < n; i++) {
+            Slot slot = slots[i];
+            objectSize = Math.max(objectSize, 2 * field.radius(i));
+            if (slot.inTree) {
+                previous.set(slot);
+                slot.set(field);
+                tree.update(slot, previous);
+            } else {
+                slot.set(field);
+                slot.inTree = true;
+                tree.add(slot);
+            }
+        }
+        // Emplacements libérés par les suppressions
+        for (int i = n; i < tracked; i++) {
+            tree.remove(slots[i]);
+            slots[i].inTree = false;
+        }
+        tracked = n;
+    }
+
+    public LooseQuadTree<?> tree() {
+        return tree;
+    }
+}
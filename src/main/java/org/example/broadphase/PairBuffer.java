@@ -0,0 +1,46 @@
+package org.example.broadphase;
+
+import java.util.Arrays;
+
+/**
+ * Liste de paires d'indices stockée dans un tableau d'entiers extensible, réutilisable d'un cycle à l'autre.
+ */
+public class PairBuffer implements PairConsumer {
+    private int[] pairs = new int[64];
+    private int size;
+
+    @Override
+    public void accept(int i, int j) {
+        if (2 * size == pairs.length) {
+            pairs = Arrays.copyOf(pairs, pairs.length * 2);
+        }
+        pairs[2 * size] = i;
+        pairs[2 * size + 1] = j;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int first(int k) {
+        return pairs[2 * k];
+    }
+
+    public int second(int k) {
+        return pairs[2 * k + 1];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Transmet les paires à <code>consumer</code>, dans leur ordre d'ajout.
+     */
+    public void forEach(PairConsumer consumer) {
+        for (int k = 0; k < size; k++) {
+            consumer.accept(pairs[2 * k], pairs[2 * k + 1]);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.broadphase;
+
+/**
+ * Reçoit les paires d'astéroïdes candidates produites par une {@link BroadPhase}, désignés par leurs indices dans
+ * l'{@link collisions.AsteroidField}.
+ */
+@FunctionalInterface
+public interface PairConsumer {
+    void accept(int i, int j);
+}
@@ -0,0 +1,68 @@
+package org.example.broadphase;
+
+import collisions.AsteroidField;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Phase large par grille uniforme, dont la recherche des paires est répartie sur un {@link ForkJoinPool}.
+ * <p>
+ * La grille est découpée en bandes de lignes. Chaque tâche parcourt une bande et range ses paires candidates dans le
+ * tampon propre à cette bande ; le test exact reste à la charge de l'appelant. Les tampons sont ensuite transmis au
+ * <code>consumer</code> sur le thread appelant, bande après bande : les paires arrivent donc dans le même ordre que
+ * pour {@link SpatialHashGrid}, quel que soit l'ordonnancement des threads, et les mises à jour de vitesse restent
+ * reproductibles.
+ */
+public class ParallelGridBroadPhase implements BroadPhase {
+    private final SpatialHashGrid grid;
+    private final ForkJoinPool pool;
+    private final PairBuffer[] stripes;
+
+    public ParallelGridBroadPhase(SpatialHashGrid grid, ForkJoinPool pool) {
+        this.grid = grid;
+        this.pool = pool;
+        // Plus de bandes que de threads pour équilibrer la charge entre zones denses et vides
+        int nbStripes = Math.min(grid.rows(), 4 * pool.getParallelism());
+        this.stripes = new PairBuffer[nbStripes];
+        for (int s = 0; s < nbStripes; s++) {
+            stripes[s] = new PairBuffer();
+        }
+    }
+
+    @Override
+    public void findPairs(AsteroidField field, PairConsumer consumer) {
+        grid.build(field);
+        pool.invoke(new StripeTask(0, stripes.length));
+        for (PairBuffer stripe : stripes) {
+            stripe.forEach(consumer);
+        }
+    }
+
+    /**
+     * Traite les bandes <code>from</code> (incluse) à <code>to</code> (exclue), en les divisant récursivement.
+     */
+    private class StripeTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+
+        StripeTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new StripeTask(from, middle), new StripeTask(middle, to));
+                return;
+            }
+            PairBuffer buffer = stripes[from];
+            buffer.clear();
+            int fromRow = from * grid.rows() / stripes.length;
+            int toRow = (from + 1) * grid.rows() / stripes.length;
+            grid.findPairs(fromRow, toRow, buffer);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package org.example.broadphase;
+
+import collisions.AsteroidField;
+import collisions.BoundingBox;
+import collisions.quadtree.QuadTree;
+import collisions.quadtree.QuadTreeLeaf;
+import collisions.quadtree.QuadTreeParameters;
+import collisions.quadtree.QuadTreeTuner;
+import collisions.quadtree.WithBB;
+
+import java.util.Arrays;
+
+/**
+ * Phase large par quadtree. L'arbre est conservé d'un cycle à l'autre : à chaque cycle, chaque emplacement de
+ * l'{@link AsteroidField} est mis à jour à partir de la bounding box sous laquelle il a été inséré, ce qui ne modifie
+ * l'arbre que pour les astéroïdes qui changent de case, ainsi que pour les emplacements ajoutés, vidés ou réutilisés.
+ * Les paires sont ensuite énumérées feuille par feuille par {@link QuadTree#forEachPair}.
+ * <p>
+ * Les bornes des emplacements sont recopiées en place à chaque cycle : aucune {@link BoundingBox} n'est allouée.
+ * <p>
+ * En mode adaptatif, un {@link QuadTreeTuner} ajuste la forme de l'arbre d'après la durée de la mise à jour et de
+ * l'énumération des paires à chaque cycle.
+ */
+public class QuadTreeBroadPhase implements BroadPhase {
+    private final BoundingBox bounds;
+    private final QuadTreeParameters parameters;
+    private QuadTree<Slot> root;
+
+    /**
+     * Ajustement de <code>parameters</code>, ou <code>null</code> si leurs valeurs sont fixes
+     */
+    private final QuadTreeTuner tuner;
+
+    /**
+     * Taille du plus grand astéroïde au dernier cycle
+     */
+    private double objectSize;
+
+    /**
+     * Ensemble dont les emplacements sont actuellement dans l'arbre
+     */
+    private AsteroidField field;
+
+    private Slot[] slots = new Slot[0];
+
+    /**
+     * Bornes d'un emplacement avant sa mise à jour
+     */
+    private final Slot previous = new Slot(-1);
+
+    /**
+     * Nombre d'emplacements présents dans l'arbre
+     */
+    private int tracked;
+
+    public QuadTreeBroadPhase(BoundingBox bounds) {
+        this(bounds, new QuadTreeParameters(), false);
+    }
+
+    /**
+     * @param parameters forme de l'arbre, valeurs de départ en mode adaptatif
+     * @param adaptive   <code>true</code> pour ajuster <code>parameters</code> à la charge mesurée
+     */
+    public QuadTreeBroadPhase(BoundingBox bounds, QuadTreeParameters parameters, boolean adaptive) {
+        this.bounds = bounds;
+        this.parameters = parameters;
+        this.tuner = adaptive ? new QuadTreeTuner(parameters, bounds) : null;
+        this.root = new QuadTreeLeaf<>(bounds, parameters);
+    }
+
+    @Override
+    public void findPairs(AsteroidField field, PairConsumer consumer) {
+        long start = System.nanoTime();
+        synchronize(field);
+        long updated = System.nanoTime();
+        root.forEachPair((a, b) -> consumer.accept(a.index, b.index));
+        if (tuner != null) {
+            tuner.observe(field.size(), objectSize, updated - start, System.nanoTime() - updated);
+        }
+    }
+
+    /**
+     * Met l'arbre en accord avec les positions actuelles des astéroïdes de <code>field</code>.
+     */
+    private void synchronize(AsteroidField field) {
+        if (this.field != field) {
+            this.field = field;
+            root = new QuadTreeLeaf<>(bounds, parameters);
+            tracked = 0;
+            for (Slot slot : slots) {
+                slot.inTree = false;
+            }
+        }
+        int n = field.size();
+        if (slots.length < n) {
+            int previous = slots.length;
+            slots = Arrays.copyOf(slots, Math.max(n, previous * 2));
+            for (int i = previous; i < slots.length; i++) {
+                slots[i] = new Slot(i);
+            }
+        }
+        objectSize = 0;
+        for (int i = 0; i < n; i++) {
+            Slot slot = slots[i];
+            objectSize = Math.max(objectSize, 2 * field.radius(i));
+            if (slot.inTree) {
+                previous.set(slot);
+                slot.set(field);
+                root = root.update(slot, previous);
+            } else {
+                slot.set(field);
+                slot.inTree = true;
+                root = root.add(slot);
+            }
+        }
+        // Emplacements libérés par les suppressions
+        for (int i = n; i < tracked; i++) {
+            root = root.remove(slots[i]);
+            slots[i].inTree = false;
+        }
+        tracked = n;
+    }
+
+    public QuadTree<? extends WithBB> root() {
+        return root;
+    }
+
+    public QuadTreeParameters parameters() {
+        return parameters;
+    }
+}
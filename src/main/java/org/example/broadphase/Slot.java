@@ -0,0 +1,73 @@
+package org.example.broadphase;
+
+import collisions.AsteroidField;
+import collisions.BoundingBox;
+import collisions.quadtree.WithBB;
+
+/**
+ * Emplacement d'un {@link AsteroidField} tel qu'il est rangé dans un arbre. Ses bornes sont recopiées en place et ne
+ * sont mises à jour qu'au moment où l'arbre l'est : lorsqu'un nœud est subdivisé, ses objets sont répartis selon les
+ * bornes sous lesquelles ils ont été insérés, même si leur astéroïde a bougé depuis. La {@link BoundingBox} n'est
+ * construite que si on la demande explicitement.
+ */
+final class Slot implements WithBB {
+    final int index;
+
+    /**
+     * <code>true</code> si l'emplacement est actuellement dans l'arbre
+     */
+    boolean inTree;
+
+    private double left;
+    private double right;
+    private double top;
+    private double bottom;
+
+    Slot(int index) {
+        this.index = index;
+    }
+
+    void set(double left, double right, double top, double bottom) {
+        this.left = left;
+        this.right = right;
+        this.top = top;
+        this.bottom = bottom;
+    }
+
+    void set(Slot that) {
+        set(that.left, that.right, that.top, that.bottom);
+    }
+
+    /**
+     * Recopie les bornes de l'astéroïde d'indice <code>index</code> de <code>field</code>
+     */
+    void set(AsteroidField field) {
+        double r = field.radius(index);
+        set(field.x(index) - r, field.x(index) + r, field.y(index) + r, field.y(index) - r);
+    }
+
+    @Override
+    public BoundingBox boundingBox() {
+        return new BoundingBox(left, right, top, bottom);
+    }
+
+    @Override
+    public double left() {
+        return left;
+    }
+
+    @Override
+    public double right() {
+        return right;
+    }
+
+    @Override
+    public double top() {
+        return top;
+    }
+
+    @Override
+    public double bottom() {
+        return bottom;
+    }
+}
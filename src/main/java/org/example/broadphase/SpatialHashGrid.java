@@ -0,0 +1,145 @@
+package org.example.broadphase;
+
+import collisions.AsteroidField;
+import collisions.BoundingBox;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Phase large par grille uniforme. Chaque astéroïde est rangé dans la cellule qui contient son centre ; si la taille
+ * des cellules est au moins le diamètre des astéroïdes, deux astéroïdes en collision sont dans la même cellule ou dans
+ * deux cellules voisines.
+ * <p>
+ * La grille est stockée dans des tableaux d'entiers : un tri par dénombrement range les indices des astéroïdes par
+ * cellule dans <code>sorted</code>, et les astéroïdes de la cellule <code>c</code> occupent
+ * <code>sorted[cellStart[c]]</code> à <code>sorted[cellStart[c + 1] - 1]</code>. Les astéroïdes hors de
+ * <code>bounds</code> sont rangés dans la cellule du bord la plus proche.
+ */
+public class SpatialHashGrid implements BroadPhase {
+    private final BoundingBox bounds;
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    private final int[] cellStart;
+    private int[] cellOf = new int[0];
+    private int[] sorted = new int[0];
+
+    /**
+     * @param cellSize taille des cellules, au moins égale au diamètre du plus gros astéroïde
+     */
+    public SpatialHashGrid(BoundingBox bounds, double cellSize) {
+        this.bounds = bounds;
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (int) Math.ceil(bounds.width() / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(bounds.height() / cellSize));
+        this.cellStart = new int[columns * rows + 1];
+    }
+
+    /**
+     * @return la cellule du point (<code>x</code>, <code>y</code>), ou la cellule du bord la plus proche
+     */
+    int cell(double x, double y) {
+        int column = Math.min(columns - 1, Math.max(0, (int) ((x - bounds.left()) / cellSize)));
+        int row = Math.min(rows - 1, Math.max(0, (int) ((y - bounds.bottom()) / cellSize)));
+        return row * columns + column;
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    int columns() {
+        return columns;
+    }
+
+    /**
+     * Range les astéroïdes de <code>field</code> dans la grille (tri par dénombrement).
+     */
+    void build(AsteroidField field) {
+        int n = field.size();
+        if (cellOf.length < n) {
+            // Marge pour les ensembles dont la taille varie d'un cycle à l'autre
+            cellOf = new int[Math.max(n, cellOf.length + cellOf.length / 2)];
+            sorted = new int[cellOf.length];
+        }
+        Arrays.fill(cellStart, 0);
+        for (int i = 0; i < n; i++) {
+            int c = cell(field.x(i), field.y(i));
+            cellOf[i] = c;
+            cellStart[c + 1]++;
+        }
+        for (int c = 0; c < columns * rows; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        // cellStart[c] sert de curseur d'écriture, puis est restauré en le décalant d'une cellule
+        for (int i = 0; i < n; i++) {
+            sorted[cellStart[cellOf[i]]++] = i;
+        }
+        for (int c = columns * rows; c > 0; c--) {
+            cellStart[c] = cellStart[c - 1];
+        }
+        cellStart[0] = 0;
+    }
+
+    @Override
+    public void findPairs(AsteroidField field, PairConsumer consumer) {
+        build(field);
+        findPairs(0, rows, consumer);
+    }
+
+    /**
+     * Produit les paires dont le premier astéroïde est dans les lignes <code>fromRow</code> (inclus) à
+     * <code>toRow</code> (exclu) de la grille construite par {@link #build}. Des appels sur des lignes disjointes
+     * peuvent être faits en parallèle.
+     */
+    void findPairs(int fromRow, int toRow, PairConsumer consumer) {
+        for (int row = fromRow; row < toRow; row++) {
+            for (int column = 0; column < columns; column++) {
+                int c = row * columns + column;
+                for (int k = cellStart[c]; k < cellStart[c + 1]; k++) {
+                    int a = sorted[k];
+                    // Même cellule : uniquement les astéroïdes suivants
+                    for (int l = k + 1; l < cellStart[c + 1]; l++) {
+                        consumer.accept(a, sorted[l]);
+                    }
+                    // Voisines : seulement la moitié, chaque paire de cellules n'est visitée qu'une fois
+                    if (column + 1 < columns) {
+                        pairsWithCell(a, c + 1, consumer);
+                    }
+                    if (row + 1 < rows) {
+                        if (column > 0) {
+                            pairsWithCell(a, c + columns - 1, consumer);
+                        }
+                        pairsWithCell(a, c + columns, consumer);
+                        if (column + 1 < columns) {
+                            pairsWithCell(a, c + columns + 1, consumer);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Appelle <code>visitor</code> pour chaque astéroïde rangé par le dernier {@link #build} dans la cellule du point
+     * (<code>x</code>, <code>y</code>) ou dans l'une de ses voisines : tous ceux dont le centre était alors à moins
+     * de <code>cellSize</code> du point.
+     */
+    void forEachNear(double x, double y, IntConsumer visitor) {
+        int c = cell(x, y);
+        int row = c / columns;
+        int column = c % columns;
+        for (int r = Math.max(0, row - 1); r <= Math.min(rows - 1, row + 1); r++) {
+            for (int l = cellStart[r * columns + Math.max(0, column - 1)]; l < cellStart[r * columns + Math.min(columns - 1, column + 1) + 1]; l++) {
+                visitor.accept(sorted[l]);
+            }
+        }
+    }
+
+    private void pairsWithCell(int a, int c, PairConsumer consumer) {
+        for (int l = cellStart[c]; l < cellStart[c + 1]; l++) {
+            consumer.accept(a, sorted[l]);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package org.example.broadphase;
+
+import collisions.AsteroidField;
+
+import java.util.Arrays;
+
+/**
+ * Phase large par balayage (sweep and prune) sur l'axe x, persistante d'un cycle à l'autre.
+ * <p>
+ * Les astéroïdes sont conservés triés par extrémité gauche de leur bounding box (<code>minX</code>). Comme ils se
+ * déplacent peu à chaque cycle, l'ordre du cycle précédent est presque correct et un tri par insertion le répare en
+ * temps quasi linéaire. Le balayage compare ensuite chaque astéroïde aux suivants tant que leur extrémité gauche est
+ * avant son extrémité droite, et ne retient que les paires dont les intervalles en y se chevauchent aussi. Les
+ * extrémités sont recopiées dans l'ordre du tri pour que le balayage lise la mémoire séquentiellement.
+ * <p>
+ * Chaque entrée mémorise l'identifiant de l'astéroïde suivi : les astéroïdes supprimés ou déplacés par
+ * {@link AsteroidField#remove} sont retirés en une passe, et les astéroïdes ajoutés sont triés entre eux puis
+ * fusionnés dans l'ordre existant, sans réinsertion individuelle coûteuse.
+ */
+public class SweepAndPrune implements BroadPhase {
+    /**
+     * Nombre d'astéroïdes ajoutés au-delà duquel ils sont triés en O(n log n) plutôt que par insertion
+     */
+    static final int SMALL_BATCH = 64;
+
+    /**
+     * Indices des astéroïdes, triés par <code>minX</code>
+     */
+    private int[] order = new int[0];
+    /**
+     * Extrémité gauche de l'astéroïde <code>order[k]</code>
+     */
+    private double[] minX = new double[0];
+    /**
+     * Extrémités droite, basse et haute de l'astéroïde <code>order[k]</code>
+     */
+    private double[] maxX = new double[0];
+    private double[] minY = new double[0];
+    private double[] maxY = new double[0];
+    /**
+     * Identifiant de l'astéroïde suivi par l'entrée <code>k</code>
+     */
+    private long[] ids = new long[0];
+    /**
+     * Nombre d'entrées valides
+     */
+    private int count;
+
+    /**
+     * <code>tracked[i]</code> vaut <code>true</code> si l'emplacement <code>i</code> est déjà présent dans l'ordre
+     */
+    private boolean[] tracked = new boolean[0];
+    private int[] added = new int[0];
+    private double[] addedMinX = new double[0];
+    private long[] addedKeys = new long[0];
+
+    @Override
+    public void findPairs(AsteroidField field, PairConsumer consumer) {
+        synchronize(field);
+        insertionSort();
+        sweep(consumer);
+    }
+
+    /**
+     * Met l'ordre en accord avec le contenu actuel de <code>field</code> et recalcule les extrémités.
+     */
+    private void synchronize(AsteroidField field) {
+        int n = field.size();
+        if (tracked.length < n) {
+            int capacity = Math.max(n, tracked.length * 2);
+            tracked = new boolean[capacity];
+            added = new int[capacity];
+            addedMinX = new double[capacity];
+        }
+        Arrays.fill(tracked, 0, n, false);
+
+        // Retrait des entrées dont l'astéroïde a disparu ou changé d'emplacement
+        int kept = 0;
+        for (int k = 0; k < count; k++) {
+            int i = order[k];
+            if (i < n && field.id(i) == ids[k]) {
+                order[kept] = i;
+                ids[kept] = ids[k];
+                bounds(field, i, kept);
+                tracked[i] = true;
+                kept++;
+            }
+        }
+
+        // Emplacements non suivis : astéroïdes ajoutés, ou déplacés par une suppression
+        int nbAdded = 0;
+        for (int i = 0; i < n; i++) {
+            if (!tracked[i]) {
+                added[nbAdded] = i;
+                addedMinX[nbAdded] = field.x(i) - field.radius(i);
+                nbAdded++;
+            }
+        }
+        if (nbAdded > 0) {
+            sortAdded(field, nbAdded);
+            merge(field, kept, nbAdded);
+        }
+        count = n;
+    }
+
+    /**
+     * Trie les astéroïdes ajoutés par <code>minX</code>. Ils sont peu nombreux en régime établi, et un tri par
+     * insertion suffit ; au premier cycle, après un changement de champ ou une resynchronisation, tous les astéroïdes
+     * sont ajoutés. Au-delà de <code>SMALL_BATCH</code>, ils sont donc triés par {@link Arrays#sort(long[], int, int)}
+     * sur des clés qui rangent <code>minX</code>, arrondi en <code>float</code>, dans les 32 bits de poids fort et
+     * l'emplacement dans ceux de poids faible. L'arrondi ne laisse désordonnés que des astéroïdes de même clé, que le
+     * tri par insertion qui suit replace en temps linéaire.
+     */
+    private void sortAdded(AsteroidField field, int nbAdded) {
+        if (nbAdded > SMALL_BATCH) {
+            if (addedKeys.length < nbAdded) {
+                addedKeys = new long[added.length];
+            }
+            for (int k = 0; k < nbAdded; k++) {
+                addedKeys[k] = (long) sortable((float) addedMinX[k]) << 32 | added[k];
+            }
+            Arrays.sort(addedKeys, 0, nbAdded);
+            for (int k = 0; k < nbAdded; k++) {
+                int i = (int) addedKeys[k];
+                added[k] = i;
+                addedMinX[k] = field.x(i) - field.radius(i);
+            }
+        }
+        insertionSortAdded(nbAdded);
+    }
+
+    /**
+     * @return un entier dont l'ordre signé est celui des flottants (NaN mis à part)
+     */
+    private static int sortable(float value) {
+        int bits = Float.floatToRawIntBits(value);
+        return bits ^ (bits >> 31 & 0x7fffffff);
+    }
+
+    private void insertionSortAdded(int nbAdded) {
+        for (int k = 1; k < nbAdded; k++) {
+            int i = added[k];
+            double key = addedMinX[k];
+            int l = k - 1;
+            while (l >= 0 && addedMinX[l] > key) {
+                added[l + 1] = added[l];
+                addedMinX[l + 1] = addedMinX[l];
+                l--;
+            }
+            added[l + 1] = i;
+            addedMinX[l + 1] = key;
+        }
+    }
+
+    /**
+     * Fusionne, en partant de la fin, les <code>kept</code> entrées conservées et les <code>nbAdded</code> astéroïdes
+     * ajoutés.
+     */
+    private void merge(AsteroidField field, int kept, int nbAdded) {
+        int total = kept + nbAdded;
+        if (order.length < total) {
+            int capacity = Math.max(total, order.length * 2);
+            order = Arrays.copyOf(order, capacity);
+            minX = Arrays.copyOf(minX, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            maxX = Arrays.copyOf(maxX, capacity);
+            minY = Arrays.copyOf(minY, capacity);
+            maxY = Arrays.copyOf(maxY, capacity);
+        }
+        int k = kept - 1;
+        int a = nbAdded - 1;
+        for (int w = total - 1; a >= 0; w--) {
+            if (k >= 0 && minX[k] > addedMinX[a]) {
+                copy(k, w);
+                k--;
+            } else {
+                order[w] = added[a];
+                ids[w] = field.id(added[a]);
+                bounds(field, added[a], w);
+                a--;
+            }
+        }
+    }
+
+    /**
+     * Recopie les extrémités de la bounding box de l'astéroïde <code>i</code> dans l'entrée <code>k</code>.
+     */
+    private void bounds(AsteroidField field, int i, int k) {
+        double r = field.radius(i);
+        minX[k] = field.x(i) - r;
+        maxX[k] = field.x(i) + r;
+        minY[k] = field.y(i) - r;
+        maxY[k] = field.y(i) + r;
+    }
+
+    private void copy(int from, int to) {
+        order[to] = order[from];
+        ids[to] = ids[from];
+        minX[to] = minX[from];
+        maxX[to] = maxX[from];
+        minY[to] = minY[from];
+        maxY[to] = maxY[from];
+    }
+
+    /**
+     * Répare l'ordre après les déplacements du cycle précédent : chaque entrée ne recule que de quelques places.
+     */
+    private void insertionSort() {
+        for (int k = 1; k < count; k++) {
+            double key = minX[k];
+            if (minX[k - 1] <= key) {
+                continue;
+            }
+            int i = order[k];
+            long id = ids[k];
+            double right = maxX[k];
+            double bottom = minY[k];
+            double top = maxY[k];
+            int l = k - 1;
+            while (l >= 0 && minX[l] > key) {
+                copy(l, l + 1);
+                l--;
+            }
+            order[l + 1] = i;
+            ids[l + 1] = id;
+            minX[l + 1] = key;
+            maxX[l + 1] = right;
+            minY[l + 1] = bottom;
+            maxY[l + 1] = top;
+        }
+    }
+
+    private void sweep(PairConsumer consumer) {
+        for (int k = 0; k < count; k++) {
+            double right = maxX[k];
+            double bottom = minY[k];
+            double top = maxY[k];
+            for (int l = k + 1; l < count && minX[l] < right; l++) {
+                if (minY[l] < top && bottom < maxY[l]) {
+                    consumer.accept(order[k], order[l]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package org.example.broadphase;
+
+import collisions.AsteroidField;
+import collisions.BoundingBox;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Phase large par listes de voisins (listes de Verlet). Lors d'une reconstruction, une {@link SpatialHashGrid}
+ * recense pour chaque astéroïde les voisins dont le centre est à moins de <code>2 * radius + skin</code> du sien.
+ * Deux astéroïdes qui se touchent et qui ne se sont pas déplacés de plus de <code>skin / 2</code> depuis étaient à
+ * moins de <code>2 * radius + skin</code> l'un de l'autre : les listes contiennent leur paire, et les cycles suivants
+ * se contentent de les relire au lieu de reconstruire la phase large.
+ * <p>
+ * Les listes sont stockées par lignes dans des tableaux d'entiers, dans l'ordre des cellules de la grille : la ligne
+ * <code>r</code> est celle de l'astéroïde <code>rowOwner[r]</code>, et ses voisins occupent
+ * <code>neighbours[rowStart[r]]</code> à <code>neighbours[rowStart[r + 1] - 1]</code>. Chaque paire n'est rangée que
+ * dans une des deux lignes.
+ * <p>
+ * Un emplacement dont l'astéroïde s'est déplacé de plus de <code>skin / 2</code>, ou a été remplacé (identifiant
+ * différent), depuis la reconstruction est sale : ses anciennes paires sont ignorées, et ses voisins sont cherchés à
+ * chaque cycle dans la grille de la reconstruction, à moins de <code>2 * radius + skin / 2</code> de sa position
+ * courante, et parmi les autres emplacements sales. Les quelques astéroïdes accélérés par les collisions au-delà de
+ * <code>MAX_SPEED</code> ou remplacés sur un bord ne provoquent donc pas de reconstruction à eux seuls : elle n'a lieu
+ * qu'au-delà de <code>1 / DIRTY_SHARE</code> emplacements sales, ou si le nombre d'astéroïdes change.
+ * <p>
+ * Les listes ne sont rentables que si les astéroïdes se déplacent peu à chaque cycle par rapport à leur rayon : elles
+ * contiennent plus de paires que la grille au diamètre des astéroïdes, et chaque reconstruction coûte plus qu'un cycle
+ * de cette grille. Avec <code>MAX_SPEED</code> égal à la moitié du rayon, c'est le cas pour un <code>timestep</code>
+ * de l'ordre de 0,25, pas pour le cycle de référence.
+ */
+public class VerletListBroadPhase implements BroadPhase {
+    /**
+     * Marge par défaut, en multiples du rayon des astéroïdes
+     */
+    public static final double SKIN = 1;
+
+    /**
+     * Inverse de la part d'emplacements sales au-delà de laquelle les listes sont reconstruites : les voisins d'un
+     * emplacement sale sont cherchés à chaque cycle, pour un coût comparable à celui d'une reconstruction par
+     * astéroïde
+     */
+    static final int DIRTY_SHARE = 16;
+
+    private final double radius;
+    private final double skin;
+    private final SpatialHashGrid grid;
+
+    /**
+     * Positions et identifiants des astéroïdes lors de la dernière reconstruction, et leur nombre (-1 avant la
+     * première)
+     */
+    private double[] x = new double[0];
+    private double[] y = new double[0];
+    private long[] id = new long[0];
+    private int size = -1;
+
+    /**
+     * Listes de voisins, par lignes
+     */
+    private int[] rowOwner = new int[0];
+    private int[] rowStart = new int[1];
+    private int rows;
+    private int[] neighbours = new int[64];
+    private int neighbourCount;
+    private double cutoff2;
+    private final PairConsumer record = this::record;
+
+    /**
+     * Emplacements sales du cycle en cours, et leurs clés de tri par cellule (cellule dans les 32 bits de poids fort,
+     * emplacement dans ceux de poids faible)
+     */
+    private boolean[] dirty = new boolean[0];
+    private int[] dirtySlots = new int[64];
+    private long[] dirtyKeys = new long[64];
+    private int dirtyCount;
+
+    /**
+     * Requête en cours dans la grille, voir {@link #near}
+     */
+    private int query;
+    private double queryX;
+    private double queryY;
+    private PairConsumer queryConsumer;
+    private final IntConsumer near = this::near;
+
+    private long rebuilds;
+
+    /**
+     * @param radius rayon maximal des astéroïdes
+     */
+    public VerletListBroadPhase(BoundingBox bounds, double radius) {
+        this(bounds, radius, SKIN * radius);
+    }
+
+    /**
+     * @param radius rayon maximal des astéroïdes
+     * @param skin   marge ajoutée à la distance de contact lors de la construction des listes
+     * @throws IllegalArgumentException si <code>skin</code> n'est pas positive
+     */
+    public VerletListBroadPhase(BoundingBox bounds, double radius, double skin) {
+        if (!(skin > 0)) {
+            throw new IllegalArgumentException("Skin must be positive: " + skin);
+        }
+        this.radius = radius;
+        this.skin = skin;
+        this.grid = new SpatialHashGrid(bounds, 2 * radius + skin);
+    }
+
+    public double skin() {
+        return skin;
+    }
+
+    /**
+     * @return le nombre de reconstructions des listes
+     */
+    public long rebuilds() {
+        return rebuilds;
+    }
+
+    @Override
+    public void findPairs(AsteroidField field, PairConsumer consumer) {
+        if (!valid(field)) {
+            rebuild(field);
+        }
+        for (int r = 0; r < rows; r++) {
+            int i = rowOwner[r];
+            if (dirty[i]) {
+                continue;
+            }
+            for (int k = rowStart[r]; k < rowStart[r + 1]; k++) {
+                int j = neighbours[k];
+                if (!dirty[j]) {
+                    consumer.accept(i, j);
+                }
+            }
+        }
+        if (dirtyCount > 0) {
+            dirtyPairs(field, consumer);
+        }
+    }
+
+    /**
+     * Marque les emplacements sales depuis la dernière reconstruction.
+     *
+     * @return <code>true</code> si les listes peuvent être relues
+     */
+    private boolean valid(AsteroidField field) {
+        clearDirty();
+        if (field.size() != size) {
+            return false;
+        }
+        double limit = skin * skin / 4;
+        int maxDirty = size / DIRTY_SHARE;
+        for (int i = 0; i < size; i++) {
+            double dx = field.x(i) - x[i];
+            double dy = field.y(i) - y[i];
+            if (dx * dx + dy * dy > limit || field.id(i) != id[i]) {
+                if (dirtyCount == maxDirty) {
+                    return false;
+                }
+                if (dirtyCount == dirtySlots.length) {
+                    dirtySlots = Arrays.copyOf(dirtySlots, 2 * dirtyCount);
+                    dirtyKeys = Arrays.copyOf(dirtyKeys, 2 * dirtyCount);
+                }
+                dirtySlots[dirtyCount++] = i;
+                dirty[i] = true;
+            }
+        }
+        return true;
+    }
+
+    private void clearDirty() {
+        for (int d = 0; d < dirtyCount; d++) {
+            dirty[dirtySlots[d]] = false;
+        }
+        dirtyCount = 0;
+    }
+
+    private void rebuild(AsteroidField field) {
+        rebuilds++;
+        clearDirty();
+        int n = field.size();
+        if (x.length < n) {
+            int capacity = Math.max(n, x.length + x.length / 2);
+            x = new double[capacity];
+            y = new double[capacity];
+            id = new long[capacity];
+            dirty = new boolean[capacity];
+            rowOwner = new int[capacity];
+            rowStart = new int[capacity + 1];
+        }
+        for (int i = 0; i < n; i++) {
+            x[i] = field.x(i);
+            y[i] = field.y(i);
+            id[i] = field.id(i);
+        }
+        size = n;
+
+        double cutoff = 2 * radius + skin;
+        cutoff2 = cutoff * cutoff;
+        rows = 0;
+        neighbourCount = 0;
+        grid.build(field);
+        // La grille produit à la suite toutes les paires d'un même premier astéroïde : chacun a au plus une ligne
+        grid.findPairs(0, grid.rows(), record);
+        rowStart[rows] = neighbourCount;
+    }
+
+    private void record(int i, int j) {
+        double dx = x[j] - x[i];
+        double dy = y[j] - y[i];
+        if (dx * dx + dy * dy >= cutoff2) {
+            return;
+        }
+        if (rows == 0 || rowOwner[rows - 1] != i) {
+            rowOwner[rows] = i;
+            rowStart[rows++] = neighbourCount;
+        }
+        if (neighbourCount == neighbours.length) {
+            neighbours = Arrays.copyOf(neighbours, 2 * neighbourCount);
+        }
+        neighbours[neighbourCount++] = j;
+    }
+
+    /**
+     * Paires des emplacements sales : avec les emplacements propres dont la position lors de la reconstruction est à
+     * moins de <code>2 * radius + skin / 2</code>, puis entre eux, à leurs positions courantes, en les triant par
+     * cellule de la grille
+     */
+    private void dirtyPairs(AsteroidField field, PairConsumer consumer) {
+        queryConsumer = consumer;
+        for (int d = 0; d < dirtyCount; d++) {
+            query = dirtySlots[d];
+            queryX = field.x(query);
+            queryY = field.y(query);
+            grid.forEachNear(queryX, queryY, near);
+            dirtyKeys[d] = (long) grid.cell(queryX, queryY) << 32 | query;
+        }
+        queryConsumer = null;
+        Arrays.sort(dirtyKeys, 0, dirtyCount);
+        double contact2 = 4 * radius * radius;
+        int columns = grid.columns();
+        for (int d = 0; d < dirtyCount; d++) {
+            int i = (int) dirtyKeys[d];
+            int c = (int) (dirtyKeys[d] >>> 32);
+            int row = c / columns;
+            int column = c % columns;
+            for (int r = Math.max(0, row - 1); r <= Math.min(grid.rows() - 1, row + 1); r++) {
+                long from = (long) (r * columns + Math.max(0, column - 1)) << 32;
+                long to = (long) (r * columns + Math.min(columns - 1, column + 1) + 1) << 32;
+                for (int e = lowerBound(from); e < dirtyCount && dirtyKeys[e] < to; e++) {
+                    int j = (int) dirtyKeys[e];
+                    double dx = field.x(j) - field.x(i);
+                    double dy = field.y(j) - field.y(i);
+                    // Chaque paire est vue depuis ses deux emplacements
+                    if (i < j && dx * dx + dy * dy < contact2) {
+                        consumer.accept(i, j);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return l'indice de la première clé de <code>dirtyKeys</code> au moins égale à <code>key</code>
+     */
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = dirtyCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (dirtyKeys[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void near(int j) {
+        if (dirty[j]) {
+            return;
+        }
+        double reach = 2 * radius + skin / 2;
+        double dx = x[j] - queryX;
+        double dy = y[j] - queryY;
+        if (dx * dx + dy * dy < reach * reach) {
+            queryConsumer.accept(query, j);
+        }
+    }
+}
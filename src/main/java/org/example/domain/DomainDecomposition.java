@@ -0,0 +1,301 @@
+package org.example.domain;
+
+import collisions.AsteroidField;
+import collisions.BoundingBox;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * Découpage de l'espace de simulation en bandes verticales ({@link Strip}), chacune propriétaire de ses astéroïdes
+ * du début à la fin du cycle : détection des collisions, déplacement et remplacement des astéroïdes sortis. Chaque
+ * étape est exécutée en parallèle sur toutes les bandes, qui ne communiquent que par leurs tampons d'échange :
+ * <ol>
+ * <li> chaque bande copie son halo, les astéroïdes à moins de <code>2 × radius</code> de son bord gauche ;
+ * <li> chaque bande traite les collisions entre ses astéroïdes et avec les fantômes du halo de sa voisine de droite,
+ * dont elle renvoie les variations de vitesse ;
+ * <li> chaque bande applique à son halo les variations de vitesse reçues ;
+ * <li> chaque bande déplace et remplace ses astéroïdes, puis retire ceux dont le centre l'a quittée ;
+ * <li> chaque bande reçoit les astéroïdes qui lui sont destinés.
+ * </ol>
+ * Le résultat ne dépend que du découpage, pas de l'ordonnancement des threads. Il diffère en revanche de celui de
+ * {@link collisions.Simulation} sans bandes pour les astéroïdes d'un halo en collision des deux côtés de la frontière
+ * au même cycle : les deux bandes calculent leurs collisions à partir de sa vitesse en début de cycle, et additionnent
+ * les variations (approximation délibérée, voir {@link Strip#collide(Strip)}). Tous les
+ * <code>REBALANCE_PERIOD</code> cycles, si la bande la plus peuplée dépasse de <code>IMBALANCE</code> la moyenne,
+ * les frontières sont déplacées pour répartir les astéroïdes également, d'après un histogramme des abscisses. Les
+ * bandes sont au moins aussi larges que le halo : une bande n'échange qu'avec ses deux voisines.
+ */
+public class DomainDecomposition {
+    /**
+     * Nombre de cycles entre deux vérifications de l'équilibre des bandes
+     */
+    public static final int REBALANCE_PERIOD = 50;
+
+    /**
+     * Rapport entre la population de la bande la plus peuplée et la moyenne au-delà duquel les bandes sont
+     * rééquilibrées
+     */
+    public static final double IMBALANCE = 1.1;
+
+    /**
+     * Nombre de colonnes de l'histogramme des abscisses utilisé pour le rééquilibrage
+     */
+    private static final int BINS = 1024;
+
+    private final BoundingBox bounds;
+    private final ForkJoinPool pool;
+    private final Strip[] strips;
+    private final double halo;
+    private final double timestep;
+    private final int nbSheets;
+
+    private long ticks;
+    private int rebalances;
+
+    /**
+     * Répartit les astéroïdes de <code>asteroids</code> entre <code>nbStrips</code> bandes de même population.
+     *
+     * @param radius   rayon maximal des astéroïdes
+     * @param timestep durée d'un cycle, voir {@link collisions.Simulation}
+     * @param seed     graine des générateurs aléatoires des bandes, qui en ont chacune un
+     */
+    public DomainDecomposition(BoundingBox bounds, int nbStrips, ForkJoinPool pool, AsteroidField asteroids, double radius,
+                               double timestep, int nbSheets, long seed) {
+        if (nbStrips < 1 || bounds.width() < nbStrips * 2 * radius) {
+            throw new IllegalArgumentException("Cannot split " + bounds + " into " + nbStrips + " strips");
+        }
+        this.bounds = bounds;
+        this.pool = pool;
+        this.halo = 2 * radius;
+        this.timestep = timestep;
+        this.nbSheets = nbSheets;
+        // Les bandes attribuent des identifiants entrelacés, tous supérieurs à ceux des astéroïdes initiaux
+        long firstId = 0;
+        for (int i = 0; i < asteroids.size(); i++) {
+            firstId = Math.max(firstId, asteroids.id(i) + 1);
+        }
+        this.strips = new Strip[nbStrips];
+        for (int k = 0; k < nbStrips; k++) {
+            strips[k] = new Strip(k, nbStrips, firstId + k, seed, BINS);
+        }
+        // Frontières régulières le temps de répartir les astéroïdes, puis rééquilibrées
+        for (int k = 0; k < nbStrips; k++) {
+            strips[k].lo = k == 0 ? Double.NEGATIVE_INFINITY : bounds.left() + k * bounds.width() / nbStrips;
+            strips[k].hi = k == nbStrips - 1 ? Double.POSITIVE_INFINITY : bounds.left() + (k + 1) * bounds.width() / nbStrips;
+        }
+        for (int i = 0; i < asteroids.size(); i++) {
+            Strip strip = strips[0];
+            for (Strip s : strips) {
+                if (s.owns(asteroids.x(i))) {
+                    strip = s;
+                }
+            }
+            strip.field.restore(strip.field.size(), asteroids.id(i), asteroids.x(i), asteroids.y(i), asteroids.vx(i),
+                    asteroids.vy(i), asteroids.radius(i), asteroids.sheet(i), asteroids.sprite(i));
+        }
+        rebalance();
+    }
+
+    public int strips() {
+        return strips.length;
+    }
+
+    /**
+     * @return le nombre de rééquilibrages effectués depuis la création
+     */
+    public int rebalances() {
+        return rebalances;
+    }
+
+    /**
+     * @return le nombre d'astéroïdes de la bande <code>k</code>
+     */
+    public int population(int k) {
+        return strips[k].field.size();
+    }
+
+    /**
+     * @return l'abscisse de la frontière entre les bandes <code>k - 1</code> et <code>k</code>, pour <code>k</code>
+     * au moins 1
+     */
+    public double boundary(int k) {
+        return strips[k].lo;
+    }
+
+    /**
+     * Phase large de tout l'espace de simulation : copie des halos, puis énumération des paires candidates de chaque
+     * bande (étape 1 et début de l'étape 2)
+     */
+    public void findPairs() {
+        forEachStrip(strip -> strip.exportHalo(halo));
+        forEachStrip(strip -> strip.findPairs(rightOf(strip)));
+    }
+
+    /**
+     * Phase étroite de tout l'espace de simulation, sur les paires candidates de {@link #findPairs()} : traitement des
+     * collisions et report des variations de vitesse des halos (fin de l'étape 2 et étape 3)
+     */
+    public void collide() {
+        forEachStrip(strip -> strip.collide(rightOf(strip)));
+        forEachStrip(Strip::importHalo);
+    }
+
+    private Strip rightOf(Strip strip) {
+        return strip.index + 1 < strips.length ? strips[strip.index + 1] : null;
+    }
+
+    /**
+     * Déplace et remplace les astéroïdes, puis les transfère entre bandes (étapes 4 et 5), et rééquilibre les bandes
+     * si nécessaire
+     */
+    public void update() {
+        forEachStrip(strip -> {
+            strip.update(bounds, timestep, nbSheets);
+            strip.emigrate(strips);
+        });
+        forEachStrip(strip -> strip.immigrate(strips));
+        ticks++;
+        if (ticks % REBALANCE_PERIOD == 0 && imbalance() > IMBALANCE) {
+            rebalance();
+        }
+    }
+
+    /**
+     * @return le rapport entre la population de la bande la plus peuplée et la population moyenne
+     */
+    private double imbalance() {
+        int total = 0;
+        int max = 0;
+        for (Strip strip : strips) {
+            total += strip.field.size();
+            max = Math.max(max, strip.field.size());
+        }
+        return total == 0 ? 1 : (double) max * strips.length / total;
+    }
+
+    /**
+     * Place les frontières aux quantiles de l'histogramme des abscisses, en respectant la largeur minimale, puis
+     * transfère les astéroïdes qui changent de bande
+     */
+    private void rebalance() {
+        forEachStrip(strip -> strip.fillHistogram(bounds));
+        int total = 0;
+        for (Strip strip : strips) {
+            total += strip.field.size();
+        }
+        double binWidth = bounds.width() / BINS;
+        double[] boundaries = new double[strips.length];
+        int bin = 0;
+        int cumulated = 0;
+        for (int k = 1; k < strips.length; k++) {
+            long target = (long) total * k / strips.length;
+            while (bin < BINS && cumulated + count(bin) <= target) {
+                cumulated += count(bin++);
+            }
+            boundaries[k] = bounds.left() + bin * binWidth;
+        }
+        // Largeur minimale : de gauche à droite, puis de droite à gauche pour la dernière bande
+        boundaries[0] = bounds.left();
+        for (int k = 1; k < strips.length; k++) {
+            boundaries[k] = Math.max(boundaries[k], boundaries[k - 1] + halo);
+        }
+        double right = bounds.right();
+        for (int k = strips.length - 1; k > 0; k--) {
+            boundaries[k] = Math.min(boundaries[k], right - halo);
+            right = boundaries[k];
+        }
+        for (int k = 0; k < strips.length; k++) {
+            strips[k].lo = k == 0 ? Double.NEGATIVE_INFINITY : boundaries[k];
+            strips[k].hi = k == strips.length - 1 ? Double.POSITIVE_INFINITY : boundaries[k + 1];
+            strips[k].resize(bounds, halo, halo);
+        }
+        forEachStrip(strip -> strip.emigrate(strips));
+        forEachStrip(strip -> strip.immigrate(strips));
+        rebalances++;
+    }
+
+    private int count(int bin) {
+        int count = 0;
+        for (Strip strip : strips) {
+            count += strip.histogram[bin];
+        }
+        return count;
+    }
+
+    /**
+     * Recopie dans <code>target</code> les astéroïdes de toutes les bandes, bande après bande
+     */
+    public void gather(AsteroidField target) {
+        target.truncate(0);
+        for (Strip strip : strips) {
+            AsteroidField f = strip.field;
+            for (int i = 0; i < f.size(); i++) {
+                target.restore(target.size(), f.id(i), f.x(i), f.y(i), f.vx(i), f.vy(i), f.radius(i), f.sheet(i), f.sprite(i));
+            }
+        }
+    }
+
+    /**
+     * @return les totaux du dernier cycle sur toutes les bandes : paires candidates, collisions, astéroïdes
+     * remplacés
+     */
+    public int candidatePairs() {
+        int total = 0;
+        for (Strip strip : strips) {
+            total += strip.candidatePairs;
+        }
+        return total;
+    }
+
+    public int collisions() {
+        int total = 0;
+        for (Strip strip : strips) {
+            total += strip.collisions;
+        }
+        return total;
+    }
+
+    public int respawned() {
+        int total = 0;
+        for (Strip strip : strips) {
+            total += strip.respawned;
+        }
+        return total;
+    }
+
+    private void forEachStrip(Consumer<Strip> step) {
+        if (strips.length == 1) {
+            step.accept(strips[0]);
+        } else {
+            pool.invoke(new StripTask(step, 0, strips.length));
+        }
+    }
+
+    /**
+     * Exécute une étape sur les bandes <code>from</code> (incluse) à <code>to</code> (exclue), en les divisant
+     * récursivement.
+     */
+    private class StripTask extends RecursiveAction {
+        private final Consumer<Strip> step;
+        private final int from;
+        private final int to;
+
+        StripTask(Consumer<Strip> step, int from, int to) {
+            this.step = step;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new StripTask(step, from, middle), new StripTask(step, middle, to));
+            } else {
+                step.accept(strips[from]);
+            }
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package org.example.domain;
+
+import collisions.AsteroidField;
+import collisions.BoundingBox;
+import collisions.Simulation;
+import collisions.broadphase.PairBuffer;
+import collisions.broadphase.SpatialHashGrid;
+import collisions.narrowphase.NarrowPhase;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Bande verticale de l'espace de simulation, possédée par un seul thread à la fois : elle stocke les astéroïdes dont
+ * le centre est entre <code>lo</code> (inclus) et <code>hi</code> (exclu), et les déplace, les teste et les remplace
+ * elle-même. Les échanges avec les bandes voisines se limitent aux tampons de cette classe :
+ * <ul>
+ * <li> le halo, copie des astéroïdes à moins de <code>halo</code> du bord gauche, lu par la bande de gauche qui y
+ * reporte les variations de vitesse dues aux collisions de part et d'autre de la frontière ;
+ * <li> les départs, astéroïdes dont le centre a quitté la bande, recopiés par la bande qui les reçoit.
+ * </ul>
+ */
+final class Strip {
+    final int index;
+
+    /**
+     * Bornes des centres des astéroïdes de la bande ; infinies du côté des bords de l'espace de simulation
+     */
+    double lo;
+    double hi;
+
+    /**
+     * Astéroïdes possédés par la bande, suivis pendant la détection des collisions des fantômes de la bande de droite
+     */
+    final AsteroidField field;
+    private SpatialHashGrid grid;
+    private final Random random;
+
+    /**
+     * Phase étroite de la bande, paires candidates du cycle et rangs des paires en collision
+     */
+    private final NarrowPhase narrowPhase = NarrowPhase.best();
+    private final PairBuffer pairs = new PairBuffer();
+    private int[] hits = new int[64];
+
+    /**
+     * Nombre d'astéroïdes possédés par la bande, suivis des fantômes entre {@link #findPairs(Strip)} et
+     * {@link #collide(Strip)}
+     */
+    private int owned;
+
+    /**
+     * Halo : copie des astéroïdes à moins de <code>halo</code> du bord gauche, par leur indice dans
+     * <code>field</code>, et variations de leur vitesse calculées par la bande de gauche
+     */
+    int haloSize;
+    int[] haloIndex = new int[0];
+    double[] haloX = new double[0];
+    double[] haloY = new double[0];
+    double[] haloVx = new double[0];
+    double[] haloVy = new double[0];
+    double[] haloRadius = new double[0];
+    long[] haloId = new long[0];
+    double[] haloDvx = new double[0];
+    double[] haloDvy = new double[0];
+
+    /**
+     * Astéroïdes sortis de la bande au dernier cycle, et bande qui les reçoit
+     */
+    final AsteroidField departures = new AsteroidField(16);
+    int[] destination = new int[16];
+
+    /**
+     * Statistiques du dernier cycle
+     */
+    int candidatePairs;
+    int collisions;
+    int respawned;
+
+    /**
+     * Répartition des centres de la bande en colonnes de l'espace de simulation, pour le rééquilibrage
+     */
+    final int[] histogram;
+
+    /**
+     * @param firstId identifiant du premier astéroïde créé par la bande ; les suivants sont espacés de
+     *                <code>nbStrips</code>
+     */
+    Strip(int index, int nbStrips, long firstId, long seed, int bins) {
+        this.index = index;
+        this.field = new AsteroidField(16, firstId, nbStrips);
+        this.random = new Random(seed + index);
+        this.histogram = new int[bins];
+    }
+
+    /**
+     * Recrée la grille pour les bornes actuelles, agrandies du halo
+     */
+    void resize(BoundingBox bounds, double halo, double cellSize) {
+        double left = Math.max(bounds.left(), lo - halo);
+        double right = Math.min(bounds.right(), hi + halo);
+        grid = new SpatialHashGrid(new BoundingBox(left, Math.max(right, left + cellSize), bounds.top(), bounds.bottom()), cellSize);
+    }
+
+    boolean owns(double x) {
+        return lo <= x && x < hi;
+    }
+
+    /**
+     * Copie dans le halo les astéroïdes à moins de <code>halo</code> du bord gauche
+     */
+    void exportHalo(double halo) {
+        haloSize = 0;
+        for (int i = 0; i < field.size(); i++) {
+            if (field.x(i) < lo + halo) {
+                if (haloSize == haloIndex.length) {
+                    growHalo();
+                }
+                int g = haloSize++;
+                haloIndex[g] = i;
+                haloX[g] = field.x(i);
+                haloY[g] = field.y(i);
+                haloVx[g] = field.vx(i);
+                haloVy[g] = field.vy(i);
+                haloRadius[g] = field.radius(i);
+                haloId[g] = field.id(i);
+            }
+        }
+    }
+
+    private void growHalo() {
+        int capacity = Math.max(16, haloIndex.length * 2);
+        haloIndex = Arrays.copyOf(haloIndex, capacity);
+        haloX = Arrays.copyOf(haloX, capacity);
+        haloY = Arrays.copyOf(haloY, capacity);
+        haloVx = Arrays.copyOf(haloVx, capacity);
+        haloVy = Arrays.copyOf(haloVy, capacity);
+        haloRadius = Arrays.copyOf(haloRadius, capacity);
+        haloId = Arrays.copyOf(haloId, capacity);
+        haloDvx = Arrays.copyOf(haloDvx, capacity);
+        haloDvy = Arrays.copyOf(haloDvy, capacity);
+    }
+
+    /**
+     * Recopie derrière les astéroïdes de la bande les fantômes du halo de <code>right</code> (la bande de droite, ou
+     * <code>null</code>), et range dans <code>pairs</code> les paires candidates entre astéroïdes de la bande, et
+     * entre ceux-ci et les fantômes.
+     */
+    void findPairs(Strip right) {
+        owned = field.size();
+        int ghosts = right == null ? 0 : right.haloSize;
+        for (int g = 0; g < ghosts; g++) {
+            field.restore(owned + g, right.haloId[g], right.haloX[g], right.haloY[g], right.haloVx[g], right.haloVy[g],
+                    right.haloRadius[g], 0, 0);
+        }
+        pairs.clear();
+        grid.findPairs(field, (i, j) -> {
+            // Paires de deux fantômes : traitées par la bande de droite
+            if (i < owned || j < owned) {
+                pairs.accept(i, j);
+            }
+        });
+    }
+
+    /**
+     * Teste les paires candidates de {@link #findPairs(Strip)} et traite les collisions. Les variations de vitesse
+     * des fantômes sont reportées dans le halo de <code>right</code>, et les fantômes retirés de la bande.
+     * <p>
+     * Approximation délibérée : un astéroïde du halo de <code>right</code> peut être en collision avec des astéroïdes
+     * de cette bande, traitées ici sur son fantôme, et avec des astéroïdes de <code>right</code>, traitées par
+     * <code>right</code>. Les deux bandes partent de sa vitesse en début de cycle, et {@link #importHalo()} additionne
+     * les deux variations, là où {@link Simulation} calculerait la seconde collision à partir de la vitesse issue de la
+     * première. Chaque réponse reste symétrique (la quantité de mouvement est conservée), mais l'énergie cinétique ne
+     * l'est qu'approximativement, et une paire qui s'éloignerait après la première réponse peut tout de même en
+     * recevoir une. Seuls les astéroïdes en collision des deux côtés d'une frontière au même cycle sont concernés.
+     */
+    void collide(Strip right) {
+        int ghosts = field.size() - owned;
+        if (hits.length < pairs.size()) {
+            hits = new int[pairs.size() + (pairs.size() >> 1)];
+        }
+        candidatePairs = pairs.size();
+        collisions = narrowPhase.overlapping(field, pairs, hits);
+        for (int h = 0; h < collisions; h++) {
+            field.collision(pairs.first(hits[h]), pairs.second(hits[h]));
+        }
+        for (int g = 0; g < ghosts; g++) {
+            right.haloDvx[g] = field.vx(owned + g) - right.haloVx[g];
+            right.haloDvy[g] = field.vy(owned + g) - right.haloVy[g];
+        }
+        field.truncate(owned);
+    }
+
+    /**
+     * Applique aux astéroïdes du halo les variations de vitesse calculées par la bande de gauche
+     */
+    void importHalo() {
+        for (int g = 0; g < haloSize; g++) {
+            int i = haloIndex[g];
+            field.setVelocity(i, field.vx(i) + haloDvx[g], field.vy(i) + haloDvy[g]);
+        }
+    }
+
+    /**
+     * Déplace les astéroïdes de la bande, et remplace sur place ceux sortis de <code>bounds</code> par de nouveaux
+     * astéroïdes sur un bord, comme {@link Simulation}
+     */
+    void update(BoundingBox bounds, double timestep, int nbSheets) {
+        respawned = 0;
+        for (int i = 0; i < field.size(); i++) {
+            field.move(i, timestep);
+            if (!field.intersects(i, bounds)) {
+                Simulation.randomEdgeAsteroid(field, i, bounds, random, nbSheets);
+                respawned++;
+            }
+        }
+    }
+
+    /**
+     * Retire de la bande les astéroïdes dont le centre en est sorti, et les range dans les départs avec la bande
+     * qui les possède désormais
+     */
+    void emigrate(Strip[] strips) {
+        departures.truncate(0);
+        // Parcours décroissant : la suppression déplace le dernier astéroïde, déjà examiné
+        for (int i = field.size() - 1; i >= 0; i--) {
+            double x = field.x(i);
+            if (owns(x)) {
+                continue;
+            }
+            int k = departures.size();
+            if (k == destination.length) {
+                destination = Arrays.copyOf(destination, k * 2);
+            }
+            destination[k] = ownerOf(strips, x);
+            departures.restore(k, field.id(i), x, field.y(i), field.vx(i), field.vy(i), field.radius(i),
+                    field.sheet(i), field.sprite(i));
+            field.remove(i);
+        }
+    }
+
+    private static int ownerOf(Strip[] strips, double x) {
+        int lo = 0;
+        int hi = strips.length - 1;
+        while (lo < hi) {
+            int middle = (lo + hi + 1) >>> 1;
+            if (strips[middle].lo <= x) {
+                lo = middle;
+            } else {
+                hi = middle - 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Ajoute à la bande les départs des autres bandes qui lui sont destinés, dans l'ordre des bandes
+     */
+    void immigrate(Strip[] strips) {
+        for (Strip from : strips) {
+            AsteroidField d = from.departures;
+            for (int k = 0; k < d.size(); k++) {
+                if (from.destination[k] == index) {
+                    field.restore(field.size(), d.id(k), d.x(k), d.y(k), d.vx(k), d.vy(k), d.radius(k), d.sheet(k), d.sprite(k));
+                }
+            }
+        }
+    }
+
+    /**
+     * Compte les centres des astéroïdes de la bande par colonne de <code>bounds</code>
+     */
+    void fillHistogram(BoundingBox bounds) {
+        Arrays.fill(histogram, 0);
+        double scale = histogram.length / bounds.width();
+        for (int i = 0; i < field.size(); i++) {
+            int bin = (int) ((field.x(i) - bounds.left()) * scale);
+            histogram[Math.max(0, Math.min(histogram.length - 1, bin))]++;
+        }
+    }
+}
@@ -45,6 +45,17 @@ public abstract class LList<T> implements Iterable<T> {
         return new LListIterator<>(this);
     }
 
+    public LList<T> remove(T elt) {
+        if (isEmpty()) {
+            return this;
+        }
+        if (head() == elt) {
+            return tail();
+        }
+        LList<T> tail = tail().remove(elt);
+        return tail == tail() ? this : tail.prepend(head());
+    }
+
     public boolean contains(T elt) {
         for (T o : this) {
             if (o == elt) return true;
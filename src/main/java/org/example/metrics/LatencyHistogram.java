@@ -0,0 +1,104 @@
+package org.example.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogramme de durées à classes logarithmiques : chaque puissance de deux est découpée en 8 classes, soit une erreur
+ * relative d'au plus 12,5 % sur les quantiles, pour quelques kilo-octets quelle que soit la plage de valeurs.
+ * <p>
+ * Prévu pour un seul thread écrivain (celui qui mesure) et des lecteurs concurrents (JMX). L'enregistrement d'une
+ * valeur ne fait aucune allocation.
+ */
+public class LatencyHistogram {
+    /**
+     * Nombre de bits de la mantisse : 2^3 = 8 classes par puissance de deux
+     */
+    private static final int SUB_BITS = 3;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    /**
+     * Les valeurs inférieures à <code>2 × SUB_COUNT</code> ont chacune leur classe
+     */
+    private static final int LINEAR = 2 * SUB_COUNT;
+    private static final int BUCKETS = LINEAR + (63 - SUB_BITS - 1) * SUB_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private volatile long count;
+    private volatile long max;
+
+    /**
+     * Enregistre une durée, en nanosecondes
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts.incrementAndGet(bucket(nanos));
+        count++;
+        if (nanos > max) {
+            max = nanos;
+        }
+    }
+
+    private static int bucket(long value) {
+        if (value < LINEAR) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+        return LINEAR + (exponent - SUB_BITS - 1) * SUB_COUNT + sub;
+    }
+
+    /**
+     * @return la plus grande valeur de la classe <code>bucket</code>
+     */
+    private static long upperBound(int bucket) {
+        if (bucket < LINEAR) {
+            return bucket;
+        }
+        int exponent = (bucket - LINEAR) / SUB_COUNT + SUB_BITS + 1;
+        long sub = (bucket - LINEAR) % SUB_COUNT;
+        return ((SUB_COUNT + sub + 1) << (exponent - SUB_BITS)) - 1;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    /**
+     * @param quantile entre 0 et 1
+     * @return une borne supérieure de la valeur du quantile demandé, en nanosecondes, ou 0 si l'histogramme est vide
+     */
+    public long quantile(double quantile) {
+        long total = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            total += counts.get(b);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += counts.get(b);
+            if (seen >= rank) {
+                return Math.min(upperBound(b), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Vide l'histogramme. Les valeurs enregistrées pendant la réinitialisation peuvent être perdues.
+     */
+    public void reset() {
+        for (int b = 0; b < BUCKETS; b++) {
+            counts.set(b, 0);
+        }
+        count = 0;
+        max = 0;
+    }
+}
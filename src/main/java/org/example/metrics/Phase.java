@@ -0,0 +1,36 @@
+package org.example.metrics;
+
+/**
+ * Phases mesurées d'un cycle de simulation et de son affichage
+ */
+public enum Phase {
+    /**
+     * Phase large de la détection des collisions : énumération des paires candidates dans un tampon (et, avec un
+     * découpage en bandes, copie des halos)
+     */
+    BROAD_PHASE("broad phase"),
+    /**
+     * Phase étroite de la détection des collisions : test exact des paires candidates du tampon et réponse aux
+     * collisions (et, avec un découpage en bandes, report des variations de vitesse des halos)
+     */
+    NARROW_PHASE("narrow phase"),
+    /**
+     * Déplacement des astéroïdes et remplacement, sur place, de ceux sortis de l'espace de simulation
+     */
+    UPDATE("update"),
+    /**
+     * Génération des astéroïdes manquants pour atteindre la population voulue
+     */
+    SPAWN("spawn"),
+    PAINT("paint");
+
+    private final String label;
+
+    Phase(String label) {
+        this.label = label;
+    }
+
+    public String label() {
+        return label;
+    }
+}
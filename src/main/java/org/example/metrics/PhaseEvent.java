@@ -0,0 +1,33 @@
+package org.example.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Événement JDK Flight Recorder couvrant une phase d'un cycle de simulation ou de l'affichage. Tant qu'aucun
+ * enregistrement n'est actif, sa création et son <code>commit()</code> ne coûtent presque rien.
+ */
+@Name("org.example.Phase")
+@Label("Simulation Phase")
+@Category({"Asteroids", "Simulation"})
+@Description("Une phase d'un cycle de simulation ou de l'affichage")
+public class PhaseEvent extends Event {
+    @Label("Phase")
+    String phase;
+
+    @Label("Tick")
+    @Description("Numéro du cycle de simulation")
+    long tick;
+
+    @Label("Asteroids")
+    int asteroids;
+
+    public PhaseEvent(Phase phase, long tick, int asteroids) {
+        this.phase = phase.label();
+        this.tick = tick;
+        this.asteroids = asteroids;
+    }
+}
@@ -0,0 +1,177 @@
+package org.example.metrics;
+
+import collisions.Simulation;
+import collisions.broadphase.QuadTreeBroadPhase;
+import collisions.quadtree.QuadTree;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Mesures d'une simulation : histogrammes de durée du cycle et de chacune de ses phases, statistiques du dernier
+ * cycle et forme du quadtree de la phase large.
+ * <p>
+ * Les cycles sont enregistrés par le thread de simulation et l'affichage par le thread d'affichage ; chaque
+ * histogramme n'a donc qu'un seul écrivain. Les valeurs sont lues sans verrou par JMX.
+ */
+public class SimulationMetrics implements SimulationMetricsMXBean {
+    /**
+     * Nombre de cycles entre deux relevés de la forme du quadtree, dont le parcours est coûteux
+     */
+    private static final int QUADTREE_SAMPLE_PERIOD = 100;
+
+    private final LatencyHistogram tick = new LatencyHistogram();
+    private final Map<Phase, LatencyHistogram> phases = new EnumMap<>(Phase.class);
+
+    private volatile long ticks;
+    private volatile int asteroids;
+    private volatile int candidatePairs;
+    private volatile int collisions;
+    private volatile int culled;
+    private volatile int spawned;
+
+    private volatile int quadTreeNodes = -1;
+    private volatile int quadTreeLeaves = -1;
+    private volatile int quadTreeDepth = -1;
+
+    public SimulationMetrics() {
+        for (Phase phase : Phase.values()) {
+            phases.put(phase, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Enregistre ces mesures auprès du serveur de MBeans de la plateforme, sous
+     * <code>org.example:type=Simulation,name=<i>name</i></code>.
+     *
+     * @throws IllegalStateException si l'enregistrement échoue, par exemple si le nom est déjà pris
+     */
+    public void register(String name) {
+        try {
+            ObjectName objectName = new ObjectName("org.example:type=Simulation,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public void recordPhase(Phase phase, long nanos) {
+        phases.get(phase).record(nanos);
+    }
+
+    /**
+     * Enregistre la durée et les statistiques du cycle de <code>simulation</code> qui vient de se terminer. Doit être
+     * appelé par le thread de simulation : la forme du quadtree y est relevée périodiquement.
+     */
+    public void recordTick(long nanos, Simulation simulation) {
+        tick.record(nanos);
+        ticks = simulation.ticks();
+        asteroids = simulation.asteroids().size();
+        candidatePairs = simulation.candidatePairs();
+        collisions = simulation.collisions();
+        culled = simulation.culled();
+        spawned = simulation.spawned();
+        if (ticks % QUADTREE_SAMPLE_PERIOD == 0 && simulation.broadPhase() instanceof QuadTreeBroadPhase quadTree) {
+            QuadTree<?> root = quadTree.root();
+            quadTreeNodes = root.nodeCount();
+            quadTreeLeaves = root.leafCount();
+            quadTreeDepth = root.maxDepth();
+        }
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1e3;
+    }
+
+    @Override
+    public long getTicks() {
+        return ticks;
+    }
+
+    @Override
+    public double getTickLatencyP50Micros() {
+        return micros(tick.quantile(0.5));
+    }
+
+    @Override
+    public double getTickLatencyP99Micros() {
+        return micros(tick.quantile(0.99));
+    }
+
+    @Override
+    public double getTickLatencyMaxMicros() {
+        return micros(tick.max());
+    }
+
+    @Override
+    public Map<String, Double> getPhaseLatencyP99Micros() {
+        Map<String, Double> result = new LinkedHashMap<>();
+        phases.forEach((phase, histogram) -> result.put(phase.label(), micros(histogram.quantile(0.99))));
+        return result;
+    }
+
+    @Override
+    public double getPaintLatencyP50Micros() {
+        return micros(phases.get(Phase.PAINT).quantile(0.5));
+    }
+
+    @Override
+    public double getPaintLatencyP99Micros() {
+        return micros(phases.get(Phase.PAINT).quantile(0.99));
+    }
+
+    @Override
+    public double getPaintLatencyMaxMicros() {
+        return micros(phases.get(Phase.PAINT).max());
+    }
+
+    @Override
+    public int getAsteroids() {
+        return asteroids;
+    }
+
+    @Override
+    public int getCandidatePairs() {
+        return candidatePairs;
+    }
+
+    @Override
+    public int getCollisions() {
+        return collisions;
+    }
+
+    @Override
+    public int getSpawned() {
+        return spawned;
+    }
+
+    @Override
+    public int getCulled() {
+        return culled;
+    }
+
+    @Override
+    public int getQuadTreeNodes() {
+        return quadTreeNodes;
+    }
+
+    @Override
+    public int getQuadTreeLeaves() {
+        return quadTreeLeaves;
+    }
+
+    @Override
+    public int getQuadTreeDepth() {
+        return quadTreeDepth;
+    }
+
+    @Override
+    public void resetHistograms() {
+        tick.reset();
+        phases.values().forEach(LatencyHistogram::reset);
+    }
+}
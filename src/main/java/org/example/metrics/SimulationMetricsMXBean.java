@@ -0,0 +1,54 @@
+package org.example.metrics;
+
+import java.util.Map;
+
+/**
+ * Compteurs de la simulation exposés par JMX (par exemple dans JConsole ou VisualVM, sous
+ * <code>org.example:type=Simulation</code>). Les durées sont en microsecondes, les compteurs de paires, collisions et
+ * astéroïdes portent sur le dernier cycle.
+ */
+public interface SimulationMetricsMXBean {
+    long getTicks();
+
+    double getTickLatencyP50Micros();
+
+    double getTickLatencyP99Micros();
+
+    double getTickLatencyMaxMicros();
+
+    /**
+     * @return le 99e centile de la durée de chaque phase, par nom de phase
+     */
+    Map<String, Double> getPhaseLatencyP99Micros();
+
+    double getPaintLatencyP50Micros();
+
+    double getPaintLatencyP99Micros();
+
+    double getPaintLatencyMaxMicros();
+
+    int getAsteroids();
+
+    int getCandidatePairs();
+
+    int getCollisions();
+
+    int getSpawned();
+
+    int getCulled();
+
+    /**
+     * @return le nombre de nœuds du quadtree de la phase large, feuilles comprises, ou -1 si la phase large n'est pas
+     * un quadtree
+     */
+    int getQuadTreeNodes();
+
+    int getQuadTreeLeaves();
+
+    int getQuadTreeDepth();
+
+    /**
+     * Vide les histogrammes de durées
+     */
+    void resetHistograms();
+}
@@ -0,0 +1,49 @@
+package org.example.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Événement JDK Flight Recorder couvrant un cycle de simulation complet, avec ses statistiques
+ */
+@Name("org.example.Tick")
+@Label("Simulation Tick")
+@Category({"Asteroids", "Simulation"})
+@Description("Un cycle complet de simulation")
+public class TickEvent extends Event {
+    @Label("Tick")
+    long tick;
+
+    @Label("Asteroids")
+    int asteroids;
+
+    @Label("Candidate Pairs")
+    @Description("Paires candidates testées par la phase étroite")
+    int candidatePairs;
+
+    @Label("Collisions")
+    int collisions;
+
+    @Label("Culled")
+    @Description("Astéroïdes supprimés car sortis de l'espace de simulation")
+    int culled;
+
+    @Label("Spawned")
+    @Description("Astéroïdes générés en remplacement")
+    int spawned;
+
+    public TickEvent(long tick) {
+        this.tick = tick;
+    }
+
+    public void set(int asteroids, int candidatePairs, int collisions, int culled, int spawned) {
+        this.asteroids = asteroids;
+        this.candidatePairs = candidatePairs;
+        this.collisions = collisions;
+        this.culled = culled;
+        this.spawned = spawned;
+    }
+}
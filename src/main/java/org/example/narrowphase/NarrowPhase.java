@@ -0,0 +1,62 @@
+package org.example.narrowphase;
+
+import collisions.AsteroidField;
+import collisions.broadphase.PairBuffer;
+
+/**
+ * Phase étroite de la détection des collisions, par lots : teste d'un coup toutes les paires candidates produites
+ * par une {@link collisions.broadphase.BroadPhase}. Le test ne lit que les positions et les rayons ; les réponses aux
+ * collisions, qui ne modifient que les vitesses, sont appliquées ensuite par l'appelant, dans l'ordre des paires.
+ * <p>
+ * Une instance garde ses tampons d'un appel à l'autre et ne doit pas être partagée entre threads.
+ */
+public interface NarrowPhase {
+    /**
+     * Nom du module du Vector API, en incubation dans le JDK et à activer par
+     * <code>--add-modules jdk.incubator.vector</code>
+     */
+    String VECTOR_MODULE = "jdk.incubator.vector";
+
+    /**
+     * Range dans <code>hits</code>, par ordre croissant, les rangs dans <code>pairs</code> des paires d'astéroïdes
+     * de <code>field</code> distants de moins de la somme de leurs rayons.
+     *
+     * @param hits tableau d'au moins <code>pairs.size()</code> éléments
+     * @return le nombre de paires en collision
+     */
+    int overlapping(AsteroidField field, PairBuffer pairs, int[] hits);
+
+    /**
+     * @return l'implémentation vectorielle si le module du Vector API est chargé, l'implémentation scalaire sinon
+     */
+    static NarrowPhase best() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+            try {
+                return new VectorNarrowPhase();
+            } catch (LinkageError e) {
+                // Module présent mais inutilisable : repli sur le code scalaire
+            }
+        }
+        return new ScalarNarrowPhase();
+    }
+
+    /**
+     * Construit l'implémentation désignée par <code>name</code>.
+     *
+     * @param name <code>scalar</code>, <code>vector</code> ou <code>best</code> (voir {@link #best()})
+     * @throws IllegalStateException si <code>vector</code> est demandé sans le module du Vector API
+     */
+    static NarrowPhase byName(String name) {
+        return switch (name) {
+            case "scalar" -> new ScalarNarrowPhase();
+            case "vector" -> {
+                if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+                    throw new IllegalStateException("Vector narrow phase requires --add-modules " + VECTOR_MODULE);
+                }
+                yield new VectorNarrowPhase();
+            }
+            case "best" -> best();
+            default -> throw new IllegalArgumentException("Unknown narrow phase: " + name);
+        };
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.narrowphase;
+
+import collisions.AsteroidField;
+import collisions.broadphase.PairBuffer;
+
+/**
+ * Phase étroite paire par paire, avec {@link AsteroidField#overlaps} : implémentation de repli sans le Vector API.
+ */
+public class ScalarNarrowPhase implements NarrowPhase {
+
+    @Override
+    public int overlapping(AsteroidField field, PairBuffer pairs, int[] hits) {
+        int count = 0;
+        for (int k = 0; k < pairs.size(); k++) {
+            if (field.overlaps(pairs.first(k), pairs.second(k))) {
+                hits[count++] = k;
+            }
+        }
+        return count;
+    }
+}
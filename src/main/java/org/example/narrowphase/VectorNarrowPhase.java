@@ -0,0 +1,91 @@
+package org.example.narrowphase;
+
+import collisions.AsteroidField;
+import collisions.broadphase.PairBuffer;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Phase étroite vectorielle, avec le Vector API (<code>jdk.incubator.vector</code>) : les paires sont traitées par
+ * blocs de <code>BLOCK</code>. Les coordonnées et rayons des deux astéroïdes de chaque paire sont d'abord recopiés
+ * dans six tableaux contigus, un par composante, puis comparés <code>SPECIES.length()</code> paires à la fois, en
+ * distances au carré. Les calculs sont ceux de {@link AsteroidField#overlaps}, dans le même ordre et sans
+ * multiplication-addition fusionnée, et le signe de <code>d² - r²</code> vaut la comparaison <code>d² &lt; r²</code>
+ * (une soustraction de flottants distincts n'est jamais nulle) : les résultats sont identiques à ceux de
+ * {@link ScalarNarrowPhase}.
+ * <p>
+ * Cette classe ne doit être chargée que si le module est présent, voir {@link NarrowPhase#best()}.
+ */
+public class VectorNarrowPhase implements NarrowPhase {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    /**
+     * Nombre de paires par bloc : les six tableaux d'un bloc tiennent dans le cache L1
+     */
+    private static final int BLOCK = 256;
+
+    private final double[] xi = new double[BLOCK];
+    private final double[] yi = new double[BLOCK];
+    private final double[] ri = new double[BLOCK];
+    private final double[] xj = new double[BLOCK];
+    private final double[] yj = new double[BLOCK];
+    private final double[] rj = new double[BLOCK];
+
+    /**
+     * Différence entre le carré de la distance et le carré de la somme des rayons de chaque paire du bloc
+     */
+    private final double[] margin = new double[BLOCK];
+
+    @Override
+    public int overlapping(AsteroidField field, PairBuffer pairs, int[] hits) {
+        int count = 0;
+        for (int start = 0; start < pairs.size(); start += BLOCK) {
+            int m = Math.min(BLOCK, pairs.size() - start);
+            gather(field, pairs, start, m);
+            compare(m);
+            // Compaction sans branchement : environ une paire candidate sur quatre est en collision
+            for (int t = 0; t < m; t++) {
+                hits[count] = start + t;
+                count += margin[t] < 0 ? 1 : 0;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Calcule <code>margin</code> pour les <code>m</code> paires du bloc, <code>SPECIES.length()</code> à la fois
+     */
+    private void compare(int m) {
+        int upper = SPECIES.loopBound(m);
+        int t = 0;
+        for (; t < upper; t += SPECIES.length()) {
+            DoubleVector dx = DoubleVector.fromArray(SPECIES, xi, t).sub(DoubleVector.fromArray(SPECIES, xj, t));
+            DoubleVector dy = DoubleVector.fromArray(SPECIES, yi, t).sub(DoubleVector.fromArray(SPECIES, yj, t));
+            DoubleVector radii = DoubleVector.fromArray(SPECIES, ri, t).add(DoubleVector.fromArray(SPECIES, rj, t));
+            dx.mul(dx).add(dy.mul(dy)).sub(radii.mul(radii)).intoArray(margin, t);
+        }
+        for (; t < m; t++) {
+            double dx = xi[t] - xj[t];
+            double dy = yi[t] - yj[t];
+            double radii = ri[t] + rj[t];
+            margin[t] = dx * dx + dy * dy - radii * radii;
+        }
+    }
+
+    /**
+     * Recopie dans les tableaux du bloc les coordonnées et rayons des paires <code>start</code> à
+     * <code>start + m</code> (exclue)
+     */
+    private void gather(AsteroidField field, PairBuffer pairs, int start, int m) {
+        for (int t = 0; t < m; t++) {
+            int i = pairs.first(start + t);
+            int j = pairs.second(start + t);
+            xi[t] = field.x(i);
+            yi[t] = field.y(i);
+            ri[t] = field.radius(i);
+            xj[t] = field.x(j);
+            yj[t] = field.y(j);
+            rj[t] = field.radius(j);
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package org.example.quadtree;
+
+import collisions.BoundingBox;
+import collisions.llist.LList;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Quadtree linéaire, reconstruit en bloc à partir d'un ensemble d'objets plutôt que modifié objet par objet.
+ * <p>
+ * Chaque objet reçoit le code de Morton (ordre en Z) de la case de <code>2^LEVELS</code>×<code>2^LEVELS</code>
+ * qui contient son centre, et les objets sont triés par code avec un tri par base parallèle. Les objets d'un nœud de
+ * niveau <code>l</code> sont alors ceux dont le code commence par les <code>2l</code> bits du nœud : ils forment une
+ * plage contiguë du tableau trié. Les nœuds ne sont que des plages d'indices stockées dans des tableaux d'entiers, et
+ * la construction ne fait que découper ces plages par recherche dichotomique : aucun objet n'est alloué une fois les
+ * tableaux à la bonne taille.
+ * <p>
+ * Comme dans le {@link LooseQuadTree}, chaque objet n'est rangé qu'une fois, selon son centre : ses bornes peuvent
+ * déborder de sa case d'au plus la plus grande demi-dimension des objets de l'arbre. Les requêtes visitent donc les
+ * nœuds dont la case, agrandie de cette marge, intersecte la bounding box cherchée, et ne rencontrent chaque objet
+ * qu'une fois.
+ */
+public class LinearQuadTree<T extends WithBB> {
+    /**
+     * Nombre de niveaux de subdivision des codes de Morton : chaque coordonnée est codée sur <code>LEVELS</code> bits
+     */
+    static final int LEVELS = 15;
+
+    private static final int CELLS = 1 << LEVELS;
+
+    private final double left;
+    private final double bottom;
+    private final double width;
+    private final double height;
+    private final RadixSort sorter;
+
+    /**
+     * Capacité des nœuds et profondeur maximale, limitée à <code>LEVELS</code>
+     */
+    private final QuadTreeParameters parameters;
+
+    /**
+     * Objets triés par code de Morton, et leurs codes
+     */
+    private Object[] items = new Object[0];
+    private int[] codes = new int[0];
+    private int[] order = new int[0];
+    private int size;
+
+    /**
+     * Plus grandes demi-dimensions des objets : marge dont ils peuvent déborder de leur case
+     */
+    private double marginX;
+    private double marginY;
+    private double[] blockMarginX = new double[0];
+    private double[] blockMarginY = new double[0];
+
+    /**
+     * Nœuds de l'arbre, le nœud 0 étant la racine : les objets du nœud <code>k</code> sont
+     * <code>items[nodeLo[k]..nodeHi[k]-1]</code>, et ses <code>nodeChildren[k]</code> enfants non vides sont les nœuds
+     * consécutifs à partir de <code>nodeFirstChild[k]</code>. La case de chaque nœud est stockée par son niveau et
+     * ses coordonnées entières à ce niveau.
+     */
+    private int[] nodeLo = new int[16];
+    private int[] nodeHi = new int[16];
+    private int[] nodeFirstChild = new int[16];
+    private int[] nodeChildren = new int[16];
+    private int[] nodeLevel = new int[16];
+    private int[] nodeX = new int[16];
+    private int[] nodeY = new int[16];
+    private int nodeCount;
+    private int maxDepth;
+
+    /**
+     * Construit un arbre vide couvrant <code>boundingBox</code>. Les objets dont le centre est hors de ces bornes sont
+     * rangés dans la case la plus proche.
+     *
+     * @param pool threads utilisés pour calculer et trier les codes
+     */
+    public LinearQuadTree(BoundingBox boundingBox, ForkJoinPool pool) {
+        this(boundingBox, pool, new QuadTreeParameters());
+    }
+
+    /**
+     * Construit un arbre vide couvrant <code>boundingBox</code>, dont la forme suit <code>parameters</code> à chaque
+     * construction. Au-delà de <code>LEVELS</code>, la profondeur maximale est sans effet.
+     *
+     * @param pool threads utilisés pour calculer et trier les codes
+     */
+    public LinearQuadTree(BoundingBox boundingBox, ForkJoinPool pool, QuadTreeParameters parameters) {
+        this.parameters = parameters;
+        this.left = boundingBox.left();
+        this.bottom = boundingBox.bottom();
+        this.width = boundingBox.width();
+        this.height = boundingBox.height();
+        this.sorter = new RadixSort(pool);
+    }
+
+    public BoundingBox boundingBox() {
+        return new BoundingBox(left, left + width, bottom + height, bottom);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public QuadTreeParameters parameters() {
+        return parameters;
+    }
+
+    /**
+     * Reconstruit l'arbre à partir des objets de <code>objects</code>, qui remplacent ceux de la construction
+     * précédente.
+     */
+    public void build(List<? extends T> objects) {
+        build(objects.toArray(), objects.size());
+    }
+
+    /**
+     * Reconstruit l'arbre à partir des <code>n</code> premiers objets de <code>objects</code>, qui remplacent ceux
+     * de la construction précédente.
+     */
+    public void build(T[] objects, int n) {
+        build((Object[]) objects, n);
+    }
+
+    private void build(Object[] objects, int n) {
+        if (codes.length < n) {
+            int capacity = Math.max(n, codes.length * 2);
+            codes = new int[capacity];
+            order = new int[capacity];
+            items = new Object[capacity];
+        } else {
+            Arrays.fill(items, n, Math.max(n, size), null);
+        }
+        size = n;
+        computeCodes(objects, n);
+        sorter.sort(codes, order, n, 2 * LEVELS);
+        for (int k = 0; k < n; k++) {
+            items[k] = objects[order[k]];
+        }
+        nodeCount = 1;
+        maxDepth = 0;
+        buildNode(0, 0, 0, 0, 0, 0, n);
+    }
+
+    /**
+     * Calcule en parallèle le code de Morton de chaque objet, ainsi que les plus grandes demi-dimensions des objets
+     */
+    private void computeCodes(Object[] objects, int n) {
+        int blocks = sorter.blocks(n);
+        if (blockMarginX.length != blocks) {
+            blockMarginX = new double[blocks];
+            blockMarginY = new double[blocks];
+        }
+        double scaleX = CELLS / width;
+        double scaleY = CELLS / height;
+        sorter.forEachBlock(blocks, b -> {
+            double mx = 0;
+            double my = 0;
+            for (int k = b * n / blocks, end = (b + 1) * n / blocks; k < end; k++) {
+                WithBB o = (WithBB) objects[k];
+                double halfWidth = (o.right() - o.left()) / 2;
+                double halfHeight = (o.top() - o.bottom()) / 2;
+                mx = Math.max(mx, halfWidth);
+                my = Math.max(my, halfHeight);
+                int cx = cell((o.left() + halfWidth - left) * scaleX);
+                int cy = cell((o.bottom() + halfHeight - bottom) * scaleY);
+                codes[k] = spread(cx) | spread(cy) << 1;
+                order[k] = k;
+            }
+            blockMarginX[b] = mx;
+            blockMarginY[b] = my;
+        });
+        // Une case de la grille en plus, pour que les arrondis du calcul des cases ne fassent manquer aucun objet
+        marginX = width / CELLS;
+        marginY = height / CELLS;
+        double mx = 0;
+        double my = 0;
+        for (int b = 0; b < blocks; b++) {
+            mx = Math.max(mx, blockMarginX[b]);
+            my = Math.max(my, blockMarginY[b]);
+        }
+        marginX += mx;
+        marginY += my;
+    }
+
+    /**
+     * @return la coordonnée entière de case correspondant à <code>c</code>, ramenée dans la grille
+     */
+    private static int cell(double c) {
+        return Math.max(0, Math.min(CELLS - 1, (int) c));
+    }
+
+    /**
+     * @return <code>v</code> dont les <code>LEVELS</code> bits de poids faible sont écartés d'un bit : le bit
+     * <code>i</code> devient le bit <code>2i</code>
+     */
+    private static int spread(int v) {
+        v = (v | v << 8) & 0x00FF00FF;
+        v = (v | v << 4) & 0x0F0F0F0F;
+        v = (v | v << 2) & 0x33333333;
+        v = (v | v << 1) & 0x55555555;
+        return v;
+    }
+
+    /**
+     * Découpe le nœud <code>node</code>, de case <code>(x, y)</code> au niveau <code>level</code>, dont les objets
+     * sont <code>items[lo..hi-1]</code>, si ses objets sont trop nombreux
+     */
+    private void buildNode(int node, int level, int x, int y, int base, int lo, int hi) {
+        nodeLo[node] = lo;
+        nodeHi[node] = hi;
+        nodeLevel[node] = level;
+        nodeX[node] = x;
+        nodeY[node] = y;
+        nodeChildren[node] = 0;
+        maxDepth = Math.max(maxDepth, level);
+        if (hi - lo <= parameters.capacity() || level >= Math.min(parameters.maxDepth(), LEVELS) || codes[lo] == codes[hi - 1]) {
+            return;
+        }
+        // Les codes de l'enfant c sont ceux de [base + c * span, base + (c + 1) * span[
+        int span = 1 << 2 * (LEVELS - level - 1);
+        int s1 = lowerBound(lo, hi, base + span);
+        int s2 = lowerBound(s1, hi, base + 2 * span);
+        int s3 = lowerBound(s2, hi, base + 3 * span);
+        int first = nodeCount;
+        int children = (lo < s1 ? 1 : 0) + (s1 < s2 ? 1 : 0) + (s2 < s3 ? 1 : 0) + (s3 < hi ? 1 : 0);
+        ensureNodeCapacity(first + children);
+        nodeCount += children;
+        nodeFirstChild[node] = first;
+        nodeChildren[node] = children;
+        int child = first;
+        if (lo < s1) {
+            buildNode(child++, level + 1, 2 * x, 2 * y, base, lo, s1);
+        }
+        if (s1 < s2) {
+            buildNode(child++, level + 1, 2 * x + 1, 2 * y, base + span, s1, s2);
+        }
+        if (s2 < s3) {
+            buildNode(child++, level + 1, 2 * x, 2 * y + 1, base + 2 * span, s2, s3);
+        }
+        if (s3 < hi) {
+            buildNode(child, level + 1, 2 * x + 1, 2 * y + 1, base + 3 * span, s3, hi);
+        }
+    }
+
+    /**
+     * @return le premier indice de <code>[lo, hi[</code> dont le code est au moins <code>code</code>, ou
+     * <code>hi</code>
+     */
+    private int lowerBound(int lo, int hi, int code) {
+        while (lo < hi) {
+            int middle = (lo + hi) >>> 1;
+            if (codes[middle] < code) {
+                lo = middle + 1;
+            } else {
+                hi = middle;
+            }
+        }
+        return lo;
+    }
+
+    private void ensureNodeCapacity(int capacity) {
+        if (nodeLo.length < capacity) {
+            int length = Math.max(capacity, nodeLo.length * 2);
+            nodeLo = Arrays.copyOf(nodeLo, length);
+            nodeHi = Arrays.copyOf(nodeHi, length);
+            nodeFirstChild = Arrays.copyOf(nodeFirstChild, length);
+            nodeChildren = Arrays.copyOf(nodeChildren, length);
+            nodeLevel = Arrays.copyOf(nodeLevel, length);
+            nodeX = Arrays.copyOf(nodeX, length);
+            nodeY = Arrays.copyOf(nodeY, length);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T item(int k) {
+        return (T) items[k];
+    }
+
+    public LList<T> intersecting(T object) {
+        return intersecting(object, LList.empty());
+    }
+
+    /**
+     * @return <code>acc</code> auquel sont ajoutés les objets de l'arbre, autres que <code>object</code>, dont la
+     * bounding box intersecte celle de <code>object</code>
+     */
+    public LList<T> intersecting(T object, LList<T> acc) {
+        ResultBuffer<T> results = new ResultBuffer<>();
+        intersecting(object, results);
+        for (int k = 0; k < results.size(); k++) {
+            acc = acc.prepend(results.get(k));
+        }
+        return acc;
+    }
+
+    /**
+     * Appelle <code>visitor</code> une seule fois pour chaque objet de l'arbre, autre que <code>query</code>, dont la
+     * bounding box intersecte celle de <code>query</code>.
+     */
+    public void intersecting(WithBB query, Consumer<? super T> visitor) {
+        if (size > 0) {
+            intersecting(0, query, 0, visitor);
+        }
+    }
+
+    /**
+     * Ajoute à <code>results</code> chaque objet de l'arbre, autre que <code>query</code>, dont la bounding box
+     * intersecte celle de <code>query</code>. Le tampon n'est pas vidé au préalable.
+     */
+    public void intersecting(WithBB query, ResultBuffer<? super T> results) {
+        intersecting(query, (Consumer<? super T>) results);
+    }
+
+    /**
+     * Objets de <code>items[from..]</code>, dans le sous-arbre de <code>node</code>, qui intersectent
+     * <code>query</code>
+     */
+    private void intersecting(int node, WithBB query, int from, Consumer<? super T> visitor) {
+        int children = nodeChildren[node];
+        if (children == 0) {
+            for (int k = Math.max(from, nodeLo[node]), hi = nodeHi[node]; k < hi; k++) {
+                T o = item(k);
+                if (o != query && o.intersects(query)) {
+                    visitor.accept(o);
+                }
+            }
+            return;
+        }
+        for (int child = nodeFirstChild[node], end = child + children; child < end; child++) {
+            if (nodeHi[child] > from && reaches(child, query)) {
+                intersecting(child, query, from, visitor);
+            }
+        }
+    }
+
+    /**
+     * @return <code>true</code> si la case du nœud, agrandie de la marge des objets, intersecte <code>query</code>
+     */
+    private boolean reaches(int node, WithBB query) {
+        double cellWidth = width / (1 << nodeLevel[node]);
+        double cellHeight = height / (1 << nodeLevel[node]);
+        double cellLeft = left + nodeX[node] * cellWidth;
+        double cellBottom = bottom + nodeY[node] * cellHeight;
+        // Les objets hors des bornes sont rangés dans les cases du bord, qui s'étendent donc à l'infini
+        double l = nodeX[node] == 0 ? Double.NEGATIVE_INFINITY : cellLeft - marginX;
+        double r = nodeX[node] == (1 << nodeLevel[node]) - 1 ? Double.POSITIVE_INFINITY : cellLeft + cellWidth + marginX;
+        double b = nodeY[node] == 0 ? Double.NEGATIVE_INFINITY : cellBottom - marginY;
+        double t = nodeY[node] == (1 << nodeLevel[node]) - 1 ? Double.POSITIVE_INFINITY : cellBottom + cellHeight + marginY;
+        return query.left() < r && l < query.right() && query.bottom() < t && b < query.top();
+    }
+
+    /**
+     * Appelle <code>consumer</code> une seule fois pour chaque paire d'objets de l'arbre dont les bounding boxes
+     * s'intersectent. Chaque objet est cherché parmi les objets qui le suivent dans l'ordre de Morton : les nœuds qui
+     * ne contiennent que des objets précédents sont ignorés sans être parcourus.
+     */
+    public void forEachPair(BiConsumer<? super T, ? super T> consumer) {
+        for (int k = 0; k < size; k++) {
+            pairsWith(0, item(k), k + 1, consumer);
+        }
+    }
+
+    /**
+     * Paires formées de <code>a</code> et des objets de <code>items[from..]</code>, dans le sous-arbre de
+     * <code>node</code>, qui l'intersectent
+     */
+    private void pairsWith(int node, T a, int from, BiConsumer<? super T, ? super T> consumer) {
+        int children = nodeChildren[node];
+        if (children == 0) {
+            for (int k = Math.max(from, nodeLo[node]), hi = nodeHi[node]; k < hi; k++) {
+                T b = item(k);
+                if (a.intersects(b)) {
+                    consumer.accept(a, b);
+                }
+            }
+            return;
+        }
+        for (int child = nodeFirstChild[node], end = child + children; child < end; child++) {
+            if (nodeHi[child] > from && reaches(child, a)) {
+                pairsWith(child, a, from, consumer);
+            }
+        }
+    }
+
+    /**
+     * @return le nombre de nœuds de l'arbre, feuilles comprises
+     */
+    public int nodeCount() {
+        return size == 0 ? 0 : nodeCount;
+    }
+
+    /**
+     * @return la profondeur du nœud le plus profond
+     */
+    public int maxDepth() {
+        return maxDepth;
+    }
+}
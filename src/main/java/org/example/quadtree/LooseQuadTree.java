@@ -0,0 +1,450 @@
+package org.example.quadtree;
+
+import collisions.BoundingBox;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Quadtree « lâche » : chaque objet est rangé dans un seul nœud, et non dans toutes les feuilles qu'il intersecte.
+ * <p>
+ * Chaque nœud couvre une case (son cœur), mais ses objets peuvent déborder de la case : les bornes lâches du nœud
+ * sont celles de la case agrandies de <code>(looseness - 1) / 2</code> fois sa taille de chaque côté. Un objet est
+ * rangé dans le nœud le plus profond, parmi ceux qui existent, dont la case contient son centre et dont les bornes
+ * lâches le contiennent entièrement. Sa place ne dépend donc que de son centre, de sa taille et de la forme de
+ * l'arbre : l'ajout, le retrait et la mise à jour suivent un seul chemin depuis la racine, et un astéroïde qui se
+ * déplace sans changer de case ne modifie pas l'arbre. Les requêtes ne rencontrent chaque objet qu'une fois et n'ont
+ * aucun doublon à éliminer ; en contrepartie, elles visitent les nœuds dont les bornes lâches, plus grandes, les
+ * intersectent.
+ * <p>
+ * Comme pour {@link QuadTree}, un nœud est subdivisé au-delà de <code>capacity</code> objets, jusqu'à la profondeur
+ * <code>maxDepth</code> (voir {@link QuadTreeParameters}), et ses enfants sont fusionnés lorsqu'il n'en contient plus
+ * que <code>capacity / 2</code>. Les objets doivent garder la bounding box sous
+ * laquelle ils ont été insérés jusqu'à leur mise à jour.
+ */
+public class LooseQuadTree<T extends WithBB> {
+    private final Node<T> root;
+
+    /**
+     * Marge des bornes lâches d'un nœud, en fraction de la taille de sa case
+     */
+    private final double margin;
+
+    private final QuadTreeParameters parameters;
+
+    /**
+     * Numéro de la dernière énumération de paires, qui marque les nœuds déjà traités
+     */
+    private int pairsEpoch;
+
+    /**
+     * @param looseness rapport entre la taille des bornes lâches d'un nœud et celle de sa case, au moins 1
+     */
+    public LooseQuadTree(BoundingBox boundingBox, double looseness) {
+        this(boundingBox, looseness, new QuadTreeParameters());
+    }
+
+    /**
+     * @param looseness  rapport entre la taille des bornes lâches d'un nœud et celle de sa case, au moins 1
+     * @param parameters capacité des nœuds et profondeur maximale de l'arbre
+     */
+    public LooseQuadTree(BoundingBox boundingBox, double looseness, QuadTreeParameters parameters) {
+        if (looseness < 1) {
+            throw new IllegalArgumentException("Looseness must be at least 1: " + looseness);
+        }
+        this.margin = (looseness - 1) / 2;
+        this.parameters = parameters;
+        this.root = new Node<>(null, boundingBox.left(), boundingBox.right(), boundingBox.top(), boundingBox.bottom(), 0,
+                margin, parameters);
+    }
+
+    public BoundingBox boundingBox() {
+        return new BoundingBox(root.left, root.right, root.top, root.bottom);
+    }
+
+    public int size() {
+        return root.count;
+    }
+
+    public QuadTreeParameters parameters() {
+        return parameters;
+    }
+
+    public void add(T object) {
+        add(object, object);
+    }
+
+    public void remove(T object) {
+        remove(object, object);
+    }
+
+    /**
+     * Retire <code>object</code>, inséré alors que sa bounding box était celle de <code>bb</code>.
+     */
+    public void remove(T object, WithBB bb) {
+        Node<T> node = find(bb);
+        if (node.removeItem(object)) {
+            for (Node<T> n = node; n != null; n = n.parent) {
+                n.count--;
+            }
+            node.collapseUpwards();
+        }
+    }
+
+    /**
+     * Met à jour la position de <code>object</code> dans l'arbre après un déplacement. L'arbre n'est modifié que si
+     * l'objet change de nœud.
+     *
+     * @param oldBB bounding box de l'objet lors de son insertion ou de sa dernière mise à jour
+     */
+    public void update(T object, WithBB oldBB) {
+        if (find(oldBB) != find(object)) {
+            remove(object, oldBB);
+            add(object);
+        }
+    }
+
+    private void add(T object, WithBB bb) {
+        Node<T> node = find(bb);
+        node.addItem(object);
+        for (Node<T> n = node; n != null; n = n.parent) {
+            n.count++;
+        }
+        node.splitIfFull();
+    }
+
+    /**
+     * @return le nœud existant le plus profond dans lequel un objet de bounding box <code>bb</code> doit être rangé
+     */
+    private Node<T> find(WithBB bb) {
+        double x = (bb.left() + bb.right()) / 2;
+        double y = (bb.bottom() + bb.top()) / 2;
+        double halfWidth = (bb.right() - bb.left()) / 2;
+        double halfHeight = (bb.top() - bb.bottom()) / 2;
+        Node<T> node = root;
+        while (node.children != null) {
+            Node<T> child = node.childAt(x, y);
+            if (child == null || !child.fits(halfWidth, halfHeight)) {
+                break;
+            }
+            node = child;
+        }
+        return node;
+    }
+
+    /**
+     * Appelle <code>visitor</code> une seule fois pour chaque objet de l'arbre, autre que <code>query</code>, dont la
+     * bounding box intersecte celle de <code>query</code>.
+     */
+    public void intersecting(WithBB query, Consumer<? super T> visitor) {
+        root.intersecting(query, visitor);
+    }
+
+    /**
+     * Appelle <code>consumer</code> une seule fois pour chaque paire d'objets de l'arbre dont les bounding boxes
+     * s'intersectent.
+     * <p>
+     * Les bornes lâches de nœuds voisins se chevauchent : un objet peut intersecter des objets de n'importe quel nœud
+     * dont les bornes lâches l'intersectent, et pas seulement de ses ancêtres et descendants. Les nœuds sont donc
+     * traités l'un après l'autre, et chaque objet d'un nœud est cherché dans tout l'arbre, parmi les objets des nœuds
+     * qui n'ont pas encore été traités : chaque paire n'est trouvée qu'une fois, par le premier de ses deux nœuds.
+     */
+    public void forEachPair(BiConsumer<? super T, ? super T> consumer) {
+        root.forEachPair(root, consumer, ++pairsEpoch);
+    }
+
+    /**
+     * @return le nombre de nœuds de l'arbre, feuilles comprises
+     */
+    public int nodeCount() {
+        return root.nodeCount();
+    }
+
+    /**
+     * @return la profondeur du nœud le plus profond
+     */
+    public int maxDepth() {
+        return root.maxDepth();
+    }
+
+    private static final class Node<T extends WithBB> implements WithBB {
+        private final Node<T> parent;
+        /**
+         * Case du nœud
+         */
+        private final double left;
+        private final double right;
+        private final double top;
+        private final double bottom;
+        /**
+         * Bornes lâches du nœud : tous ses objets y sont contenus
+         */
+        private final double looseLeft;
+        private final double looseRight;
+        private final double looseTop;
+        private final double looseBottom;
+        private final int depth;
+        private final double margin;
+        private final QuadTreeParameters parameters;
+
+        private Object[] items = new Object[4];
+        private int size;
+
+        /**
+         * Nombre d'objets du nœud et de ses descendants
+         */
+        private int count;
+
+        /**
+         * Numéro de la dernière énumération de paires qui a traité ce nœud
+         */
+        private int pairsEpoch;
+
+        /**
+         * Enfants nw, ne, sw, se, ou <code>null</code> pour une feuille
+         */
+        private Node<T>[] children;
+
+        private Node(Node<T> parent, double left, double right, double top, double bottom, int depth, double margin,
+                     QuadTreeParameters parameters) {
+            this.parent = parent;
+            this.left = left;
+            this.right = right;
+            this.top = top;
+            this.bottom = bottom;
+            double dx = (right - left) * margin;
+            double dy = (top - bottom) * margin;
+            this.looseLeft = left - dx;
+            this.looseRight = right + dx;
+            this.looseTop = top + dy;
+            this.looseBottom = bottom - dy;
+            this.depth = depth;
+            this.margin = margin;
+            this.parameters = parameters;
+        }
+
+        @Override
+        public BoundingBox boundingBox() {
+            return new BoundingBox(looseLeft, looseRight, looseTop, looseBottom);
+        }
+
+        @Override
+        public double left() {
+            return looseLeft;
+        }
+
+        @Override
+        public double right() {
+            return looseRight;
+        }
+
+        @Override
+        public double top() {
+            return looseTop;
+        }
+
+        @Override
+        public double bottom() {
+            return looseBottom;
+        }
+
+        /**
+         * @return <code>true</code> si un objet centré dans la case de ce nœud, de demi-dimensions données, tient
+         * entièrement dans ses bornes lâches
+         */
+        private boolean fits(double halfWidth, double halfHeight) {
+            return halfWidth <= (right - left) * margin && halfHeight <= (top - bottom) * margin;
+        }
+
+        /**
+         * @return l'enfant dont la case contient le point <code>(x, y)</code>, ou <code>null</code> si le point est
+         * hors de la case de ce nœud
+         */
+        private Node<T> childAt(double x, double y) {
+            if (!(left <= x && x < right && bottom <= y && y < top)) {
+                return null;
+            }
+            double midX = (left + right) / 2;
+            double midY = (bottom + top) / 2;
+            return children[(y < midY ? 2 : 0) + (x < midX ? 0 : 1)];
+        }
+
+        @SuppressWarnings("unchecked")
+        private T item(int k) {
+            return (T) items[k];
+        }
+
+        private void addItem(T object) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = object;
+        }
+
+        private boolean removeItem(T object) {
+            for (int k = 0; k < size; k++) {
+                if (items[k] == object) {
+                    items[k] = items[--size];
+                    items[size] = null;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Subdivise la feuille si elle est pleine, et descend dans les enfants les objets qui y tiennent
+         */
+        private void splitIfFull() {
+            if (children != null || size <= parameters.capacity() || depth >= parameters.maxDepth()) {
+                return;
+            }
+            double midX = (left + right) / 2;
+            double midY = (bottom + top) / 2;
+            children = newChildren();
+            children[0] = new Node<>(this, left, midX, top, midY, depth + 1, margin, parameters);
+            children[1] = new Node<>(this, midX, right, top, midY, depth + 1, margin, parameters);
+            children[2] = new Node<>(this, left, midX, midY, bottom, depth + 1, margin, parameters);
+            children[3] = new Node<>(this, midX, right, midY, bottom, depth + 1, margin, parameters);
+            int kept = 0;
+            for (int k = 0; k < size; k++) {
+                T o = item(k);
+                Node<T> child = childAt((o.left() + o.right()) / 2, (o.bottom() + o.top()) / 2);
+                if (child != null && child.fits((o.right() - o.left()) / 2, (o.top() - o.bottom()) / 2)) {
+                    child.addItem(o);
+                    child.count++;
+                } else {
+                    items[kept++] = o;
+                }
+            }
+            Arrays.fill(items, kept, size, null);
+            size = kept;
+            for (Node<T> child : children) {
+                child.splitIfFull();
+            }
+        }
+
+        /**
+         * Tableau vide pour les quatre enfants ; la conversion est sûre, le tableau étant neuf et ne recevant que des
+         * <code>Node&lt;T&gt;</code>
+         */
+        @SuppressWarnings("unchecked")
+        private static <T extends WithBB> Node<T>[] newChildren() {
+            return (Node<T>[]) new Node<?>[4];
+        }
+
+        /**
+         * Remonte depuis ce nœud et fusionne les enfants du plus haut ancêtre qui ne contient plus assez d'objets
+         */
+        private void collapseUpwards() {
+            Node<T> highest = null;
+            for (Node<T> n = this; n != null; n = n.parent) {
+                if (n.children != null && n.count <= parameters.capacity() / 2) {
+                    highest = n;
+                }
+            }
+            if (highest != null) {
+                for (Node<T> child : highest.children) {
+                    child.moveItemsTo(highest);
+                }
+                highest.children = null;
+            }
+        }
+
+        private void moveItemsTo(Node<T> target) {
+            for (int k = 0; k < size; k++) {
+                target.addItem(item(k));
+            }
+            if (children != null) {
+                for (Node<T> child : children) {
+                    child.moveItemsTo(target);
+                }
+            }
+        }
+
+        private void intersecting(WithBB query, Consumer<? super T> visitor) {
+            for (int k = 0; k < size; k++) {
+                T o = item(k);
+                if (o != query && o.intersects(query)) {
+                    visitor.accept(o);
+                }
+            }
+            if (children != null) {
+                for (Node<T> child : children) {
+                    if (child.count > 0 && query.intersects(child)) {
+                        child.intersecting(query, visitor);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Énumère les paires dont un objet au moins est dans ce nœud ou ses descendants, et dont l'autre est dans un
+         * nœud pas encore traité. Les nœuds sont traités en ordre préfixe ; chaque nœud traité est marqué par
+         * <code>epoch</code>.
+         */
+        private void forEachPair(Node<T> root, BiConsumer<? super T, ? super T> consumer, int epoch) {
+            for (int k = 0; k < size; k++) {
+                T a = item(k);
+                for (int l = k + 1; l < size; l++) {
+                    T b = item(l);
+                    if (a.intersects(b)) {
+                        consumer.accept(a, b);
+                    }
+                }
+                root.pairsWith(a, this, consumer, epoch);
+            }
+            pairsEpoch = epoch;
+            if (children != null) {
+                for (Node<T> child : children) {
+                    if (child.count > 0) {
+                        child.forEachPair(root, consumer, epoch);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Paires formées de <code>a</code>, rangé dans <code>origin</code>, et des objets des nœuds de ce sous-arbre
+         * qui ne sont pas encore traités, autres que <code>origin</code>
+         */
+        private void pairsWith(T a, Node<T> origin, BiConsumer<? super T, ? super T> consumer, int epoch) {
+            if (this != origin && pairsEpoch != epoch) {
+                for (int k = 0; k < size; k++) {
+                    T b = item(k);
+                    if (a.intersects(b)) {
+                        consumer.accept(a, b);
+                    }
+                }
+            }
+            if (children != null) {
+                for (Node<T> child : children) {
+                    if (child.count > 0 && a.intersects(child)) {
+                        child.pairsWith(a, origin, consumer, epoch);
+                    }
+                }
+            }
+        }
+
+        private int nodeCount() {
+            int n = 1;
+            if (children != null) {
+                for (Node<T> child : children) {
+                    n += child.nodeCount();
+                }
+            }
+            return n;
+        }
+
+        private int maxDepth() {
+            int d = depth;
+            if (children != null) {
+                for (Node<T> child : children) {
+                    d = Math.max(d, child.maxDepth());
+                }
+            }
+            return d;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package org.example.quadtree;
+
+import collisions.BoundingBox;
+
+import java.util.PriorityQueue;
+
+/**
+ * Recherche des <code>k</code> objets les plus proches d'un point, par un parcours du meilleur d'abord : les nœuds à
+ * visiter sont rangés par distance croissante à leur case, et les <code>k</code> meilleurs objets trouvés dans un tas
+ * dont la racine est le plus éloigné. Le parcours s'arrête dès que la case la plus proche restant à visiter est plus
+ * loin que ce dernier : aucun objet qu'elle contient ne peut plus entrer dans le tas. Les distances aux cases sont
+ * celles des cases prolongées (voir {@link QuadTree#distanceSquared(double, double, BoundingBox)}), qui minorent
+ * celles des objets qu'elles contiennent même lorsqu'ils dépassent de l'arbre.
+ */
+final class NearestSearch<T extends WithBB> {
+    private final double x;
+    private final double y;
+    private final int k;
+    private final BoundingBox root;
+
+    private final PriorityQueue<Entry<T>> nodes = new PriorityQueue<>();
+
+    /**
+     * Tas des meilleurs objets, le plus éloigné à la racine
+     */
+    private final Object[] objects;
+    private final double[] distances;
+    private int size;
+
+    NearestSearch(double x, double y, int k, BoundingBox root) {
+        this.x = x;
+        this.y = y;
+        this.k = k;
+        this.root = root;
+        this.objects = new Object[k];
+        this.distances = new double[k];
+    }
+
+    void run(QuadTree<T> root, ResultBuffer<? super T> results) {
+        push(root);
+        Entry<T> next;
+        while ((next = nodes.poll()) != null && !(size == k && next.distance >= distances[0])) {
+            next.node.expand(this);
+        }
+        // Tri par tas : l'objet le plus éloigné restant passe à la fin du tableau
+        int count = size;
+        while (size > 0) {
+            Object top = objects[0];
+            double distance = distances[0];
+            size--;
+            siftDown(0, objects[size], distances[size]);
+            objects[size] = top;
+            distances[size] = distance;
+        }
+        for (int i = 0; i < count; i++) {
+            results.accept(object(i));
+        }
+    }
+
+    void push(QuadTree<T> node) {
+        double distance = node.distanceSquared(x, y, root);
+        if (size < k || distance < distances[0]) {
+            nodes.add(new Entry<>(distance, node));
+        }
+    }
+
+    /**
+     * Propose un objet d'une feuille. Un objet présent dans plusieurs feuilles n'est retenu qu'une fois.
+     */
+    void offer(T object) {
+        double distance = object.distanceSquared(x, y);
+        if (size == k && distance >= distances[0]) {
+            return;
+        }
+        for (int i = 0; i < size; i++) {
+            if (objects[i] == object) {
+                return;
+            }
+        }
+        if (size < k) {
+            siftUp(size++, object, distance);
+        } else {
+            siftDown(0, object, distance);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T object(int i) {
+        return (T) objects[i];
+    }
+
+    private void siftUp(int i, Object object, double distance) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (distances[parent] >= distance) {
+                break;
+            }
+            objects[i] = objects[parent];
+            distances[i] = distances[parent];
+            i = parent;
+        }
+        objects[i] = object;
+        distances[i] = distance;
+    }
+
+    private void siftDown(int i, Object object, double distance) {
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && distances[child + 1] > distances[child]) {
+                child++;
+            }
+            if (distances[child] <= distance) {
+                break;
+            }
+            objects[i] = objects[child];
+            distances[i] = distances[child];
+            i = child;
+        }
+        objects[i] = object;
+        distances[i] = distance;
+    }
+
+    private record Entry<T extends WithBB>(double distance, QuadTree<T> node) implements Comparable<Entry<T>> {
+        @Override
+        public int compareTo(Entry<T> that) {
+            return Double.compare(distance, that.distance);
+        }
+    }
+}
@@ -4,12 +4,26 @@ import collisions.BoundingBox;
 import collisions.llist.LList;
 
 import java.awt.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 public abstract class QuadTree<T extends WithBB> implements WithBB {
     private final BoundingBox boundingBox;
+    private final int depth;
+
+    /**
+     * Capacité des feuilles et profondeur maximale, partagées par tous les nœuds de l'arbre
+     */
+    private final QuadTreeParameters parameters;
 
     public QuadTree(BoundingBox boundingBox) {
+        this(boundingBox, 0, new QuadTreeParameters());
+    }
+
+    protected QuadTree(BoundingBox boundingBox, int depth, QuadTreeParameters parameters) {
         this.boundingBox = boundingBox;
+        this.depth = depth;
+        this.parameters = parameters;
     }
 
     public static <T extends WithBB> QuadTree<T> from(BoundingBox bb, Iterable<T> objects) {
@@ -25,6 +39,14 @@ public abstract class QuadTree<T extends WithBB> implements WithBB {
         return boundingBox;
     }
 
+    public int depth() {
+        return depth;
+    }
+
+    public QuadTreeParameters parameters() {
+        return parameters;
+    }
+
 
     static <T extends WithBB> QuadTree<T> empty(BoundingBox bb) {
         throw new UnsupportedOperationException();
@@ -32,12 +54,191 @@ public abstract class QuadTree<T extends WithBB> implements WithBB {
 
     public abstract QuadTree<T> add(T object);
 
+    /**
+     * Retire <code>object</code> de l'arbre. Sa bounding box doit être celle qu'il avait lors de son insertion (ou de
+     * sa dernière mise à jour).
+     */
+    public QuadTree<T> remove(T object) {
+        return remove(object, object);
+    }
+
+    /**
+     * Retire <code>object</code>, inséré alors que sa bounding box était celle de <code>bb</code>.
+     */
+    public abstract QuadTree<T> remove(T object, WithBB bb);
+
+    /**
+     * Met à jour la position de <code>object</code> dans l'arbre après un déplacement. L'objet n'est retiré ou ajouté
+     * que dans les cases dont il est sorti ou dans lesquelles il est entré.
+     *
+     * @param oldBB bounding box de l'objet lors de son insertion ou de sa dernière mise à jour
+     */
+    public QuadTree<T> update(T object, WithBB oldBB) {
+        return update(object, oldBB, object);
+    }
+
+    abstract QuadTree<T> update(T object, WithBB oldBB, WithBB newBB);
+
     public LList<T> intersecting(T object) {
         return intersecting(object, LList.empty());
     }
 
     public abstract LList<T> intersecting(T object, LList<T> acc);
 
+    /**
+     * Appelle <code>visitor</code> une seule fois pour chaque objet de l'arbre, autre que <code>query</code>, dont la
+     * bounding box intersecte celle de <code>query</code>.
+     * <p>
+     * Comme pour {@link #forEachPair}, un objet présent dans plusieurs feuilles n'est rapporté que par la feuille qui
+     * contient le coin bas gauche de son intersection avec <code>query</code> : aucun doublon n'est recherché et rien
+     * n'est alloué.
+     */
+    public void intersecting(WithBB query, Consumer<? super T> visitor) {
+        intersecting(query, visitor, boundingBox());
+    }
+
+    /**
+     * Ajoute à <code>results</code> les objets de l'arbre, autres que <code>query</code>, dont la bounding box
+     * intersecte celle de <code>query</code>. Le tampon n'est pas vidé au préalable.
+     */
+    public void intersecting(WithBB query, ResultBuffer<? super T> results) {
+        intersecting(query, results, boundingBox());
+    }
+
+    abstract void intersecting(WithBB query, Consumer<? super T> visitor, BoundingBox root);
+
+    /**
+     * Ajoute à <code>results</code>, du plus proche au plus éloigné, les <code>k</code> objets de l'arbre les plus
+     * proches du point (<code>x</code>, <code>y</code>) au sens de {@link WithBB#distanceSquared}, ou tous les objets
+     * s'il y en a moins. Le tampon n'est pas vidé au préalable.
+     * <p>
+     * Les nœuds sont visités par distance croissante à leur case, et le parcours s'arrête dès que la plus proche des
+     * cases restantes est plus loin que le <code>k</code>-ième objet trouvé (voir {@link NearestSearch}).
+     *
+     * @throws IllegalArgumentException si <code>k</code> est négatif
+     */
+    public void nearest(double x, double y, int k, ResultBuffer<? super T> results) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Number of neighbours must not be negative: " + k);
+        }
+        if (k > 0) {
+            new NearestSearch<T>(x, y, k, boundingBox).run(this, results);
+        }
+    }
+
+    /**
+     * Appelle <code>visitor</code> une seule fois pour chaque objet de l'arbre à une distance strictement inférieure
+     * à <code>r</code> du point (<code>x</code>, <code>y</code>), au sens de {@link WithBB#distanceSquared}.
+     * <p>
+     * Seules les cases qui intersectent le carré circonscrit au cercle sont visitées. Comme pour
+     * {@link #intersecting(WithBB, Consumer)}, un objet présent dans plusieurs feuilles n'est rapporté que par celle
+     * qui contient le coin bas gauche de son intersection avec ce carré.
+     */
+    public void withinRadius(double x, double y, double r, Consumer<? super T> visitor) {
+        if (r > 0) {
+            withinRadius(x, y, r, visitor, boundingBox);
+        }
+    }
+
+    /**
+     * Ajoute à <code>results</code> les objets de l'arbre à une distance strictement inférieure à <code>r</code> du
+     * point (<code>x</code>, <code>y</code>). Le tampon n'est pas vidé au préalable.
+     */
+    public void withinRadius(double x, double y, double r, ResultBuffer<? super T> results) {
+        withinRadius(x, y, r, (Consumer<? super T>) results);
+    }
+
+    abstract void withinRadius(double x, double y, double r, Consumer<? super T> visitor, BoundingBox root);
+
+    /**
+     * Étape de {@link NearestSearch} : un nœud y ajoute ses enfants, une feuille ses objets
+     */
+    abstract void expand(NearestSearch<T> search);
+
+    /**
+     * Appelle <code>consumer</code> une seule fois pour chaque paire d'objets de l'arbre dont les bounding boxes
+     * s'intersectent.
+     * <p>
+     * Un objet à cheval sur plusieurs feuilles est présent dans chacune d'elles, et une paire peut donc être vue dans
+     * plusieurs feuilles. Elle n'est rapportée que par la feuille qui contient le coin bas gauche de l'intersection des
+     * deux bounding boxes (ramené dans l'arbre s'il en sort) : cette feuille est unique et contient forcément les deux
+     * objets. Aucune liste de résultats n'est construite et aucun doublon n'est recherché.
+     */
+    public void forEachPair(BiConsumer<? super T, ? super T> consumer) {
+        forEachPair(consumer, boundingBox());
+    }
+
+    abstract void forEachPair(BiConsumer<? super T, ? super T> consumer, BoundingBox root);
+
+    /**
+     * @return <code>true</code> si le coin bas gauche de l'intersection de <code>a</code> et <code>b</code>, ramené
+     * dans <code>root</code>, est dans cette case (bords gauche et bas inclus, droit et haut exclus)
+     */
+    boolean ownsPair(WithBB a, WithBB b, BoundingBox root) {
+        double x = Math.max(Math.max(a.left(), b.left()), root.left());
+        double y = Math.max(Math.max(a.bottom(), b.bottom()), root.bottom());
+        return boundingBox.left() <= x && x < boundingBox.right() && boundingBox.bottom() <= y && y < boundingBox.top();
+    }
+
+    /**
+     * Les requêtes par distance voient chaque case prolongée à l'infini du côté des bords de <code>root</code> : la
+     * partie d'un objet qui dépasse de l'arbre est rattachée aux cases du bord qu'il chevauche, et un point hors de
+     * l'arbre appartient à une seule case.
+     *
+     * @return le carré de la distance entre le point (<code>x</code>, <code>y</code>) et la case prolongée
+     */
+    double distanceSquared(double x, double y, BoundingBox root) {
+        double dx = Math.max(Math.max(extendedLeft(root) - x, x - extendedRight(root)), 0);
+        double dy = Math.max(Math.max(extendedBottom(root) - y, y - extendedTop(root)), 0);
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * @return <code>true</code> si la case prolongée intersecte le rectangle donné
+     */
+    boolean reaches(double left, double right, double bottom, double top, BoundingBox root) {
+        return left < extendedRight(root) && extendedLeft(root) < right && bottom < extendedTop(root) && extendedBottom(root) < top;
+    }
+
+    /**
+     * @return <code>true</code> si le point (<code>x</code>, <code>y</code>) est dans la case prolongée (bords gauche
+     * et bas inclus, droit et haut exclus)
+     */
+    boolean owns(double x, double y, BoundingBox root) {
+        return extendedLeft(root) <= x && x < extendedRight(root) && extendedBottom(root) <= y && y < extendedTop(root);
+    }
+
+    private double extendedLeft(BoundingBox root) {
+        return boundingBox.left() == root.left() ? Double.NEGATIVE_INFINITY : boundingBox.left();
+    }
+
+    private double extendedRight(BoundingBox root) {
+        return boundingBox.right() == root.right() ? Double.POSITIVE_INFINITY : boundingBox.right();
+    }
+
+    private double extendedBottom(BoundingBox root) {
+        return boundingBox.bottom() == root.bottom() ? Double.NEGATIVE_INFINITY : boundingBox.bottom();
+    }
+
+    private double extendedTop(BoundingBox root) {
+        return boundingBox.top() == root.top() ? Double.POSITIVE_INFINITY : boundingBox.top();
+    }
+
+    /**
+     * @return le nombre de nœuds de l'arbre, feuilles comprises
+     */
+    public abstract int nodeCount();
+
+    /**
+     * @return le nombre de feuilles de l'arbre
+     */
+    public abstract int leafCount();
+
+    /**
+     * @return la profondeur de la feuille la plus profonde
+     */
+    public abstract int maxDepth();
+
     public void draw(Graphics2D g2d, double height) {
         g2d.setColor(Color.CYAN);
         boundingBox.draw(g2d, height);
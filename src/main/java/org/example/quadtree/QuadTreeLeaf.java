@@ -3,43 +3,162 @@ package org.example.quadtree;
 import collisions.BoundingBox;
 import collisions.llist.LList;
 
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
 public class QuadTreeLeaf<T extends WithBB> extends QuadTree<T> {
     private LList<T> list;
 
     public QuadTreeLeaf(BoundingBox boundingBox) {
-        super(boundingBox);
-        list = LList.empty();
+        this(boundingBox, new QuadTreeParameters());
+    }
+
+    /**
+     * Construit un arbre vide dont la forme suit <code>parameters</code>
+     */
+    public QuadTreeLeaf(BoundingBox boundingBox, QuadTreeParameters parameters) {
+        this(boundingBox, LList.empty(), 0, parameters);
     }
+
     public QuadTreeLeaf(BoundingBox boundingBox, LList<T> list) {
-        super(boundingBox);
+        this(boundingBox, list, 0, new QuadTreeParameters());
+    }
+
+    QuadTreeLeaf(BoundingBox boundingBox, LList<T> list, int depth, QuadTreeParameters parameters) {
+        super(boundingBox, depth, parameters);
         this.list = list;
     }
 
     @Override
     public QuadTree<T> add(T object) {
 
-        if (!object.boundingBox().intersects(boundingBox())) {
+        if (!object.intersects(boundingBox())) {
             return this;
         }
-        if (list.size() >= 10) {
-            QuadTreeNode<T> node = new QuadTreeNode<>(boundingBox());
+        if (list.size() >= parameters().capacity() && depth() < parameters().maxDepth() && separable(object)) {
+            QuadTreeNode<T> node = new QuadTreeNode<>(boundingBox(), depth(), parameters());
             node.addAll(list.prepend(object));
             return node;
         }else{
-            return new QuadTreeLeaf<>(boundingBox(), list.prepend(object));
+            list = list.prepend(object);
+            return this;
+        }
+    }
+
+    /**
+     * @return <code>true</code> si <code>object</code> ou un objet de la feuille est plus étroit ou moins haut qu'un
+     * quart de la feuille. Sinon, chaque objet recouvrirait une bonne partie des quarts dans lesquels il serait
+     * copié : la subdivision ne séparerait presque rien, et des objets superposés rempliraient à nouveau les quarts,
+     * multipliant les feuilles à chaque niveau jusqu'à la profondeur maximale.
+     */
+    private boolean separable(T object) {
+        double width = boundingBox().width() / 2;
+        double height = boundingBox().height() / 2;
+        if (smallerThan(object, width, height)) {
+            return true;
+        }
+        for (T o : list) {
+            if (smallerThan(o, width, height)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean smallerThan(WithBB o, double width, double height) {
+        return o.right() - o.left() < width || o.top() - o.bottom() < height;
+    }
+
+    @Override
+    public QuadTree<T> remove(T object, WithBB bb) {
+        if (bb.intersects(boundingBox())) {
+            list = list.remove(object);
+        }
+        return this;
+    }
+
+    @Override
+    QuadTree<T> update(T object, WithBB oldBB, WithBB newBB) {
+        boolean wasInside = oldBB.intersects(boundingBox());
+        boolean isInside = newBB.intersects(boundingBox());
+        if (wasInside && !isInside) {
+            return remove(object, oldBB);
+        }
+        if (isInside && !wasInside) {
+            return add(object);
         }
+        return this;
+    }
+
+    @Override
+    void forEachPair(BiConsumer<? super T, ? super T> consumer, BoundingBox root) {
+        for (LList<T> l = list; l.nonEmpty(); l = l.tail()) {
+            T a = l.head();
+            for (LList<T> m = l.tail(); m.nonEmpty(); m = m.tail()) {
+                T b = m.head();
+                if (a.intersects(b) && ownsPair(a, b, root)) {
+                    consumer.accept(a, b);
+                }
+            }
+        }
+    }
+
+    LList<T> list() {
+        return list;
     }
 
     @Override
     public LList<T> intersecting(T object, LList<T> acc) {
-        if (object.boundingBox().intersects(boundingBox())) {
+        if (object.intersects(boundingBox())) {
             for (T o : list) {
-                if (o != object && o.boundingBox().intersects(object.boundingBox()) && !acc.contains(o)) {
+                if (o != object && o.intersects(object) && !acc.contains(o)) {
                     acc = acc.prepend(o);
                 }
             }
         }
         return acc;
     }
-}
 
+    @Override
+    void intersecting(WithBB query, Consumer<? super T> visitor, BoundingBox root) {
+        for (LList<T> l = list; l.nonEmpty(); l = l.tail()) {
+            T o = l.head();
+            if (o != query && o.intersects(query) && ownsPair(o, query, root)) {
+                visitor.accept(o);
+            }
+        }
+    }
+
+    @Override
+    void withinRadius(double x, double y, double r, Consumer<? super T> visitor, BoundingBox root) {
+        double r2 = r * r;
+        for (LList<T> l = list; l.nonEmpty(); l = l.tail()) {
+            T o = l.head();
+            if (owns(Math.max(o.left(), x - r), Math.max(o.bottom(), y - r), root) && o.distanceSquared(x, y) < r2) {
+                visitor.accept(o);
+            }
+        }
+    }
+
+    @Override
+    void expand(NearestSearch<T> search) {
+        for (LList<T> l = list; l.nonEmpty(); l = l.tail()) {
+            search.offer(l.head());
+        }
+    }
+
+    @Override
+    public int nodeCount() {
+        return 1;
+    }
+
+    @Override
+    public int leafCount() {
+        return 1;
+    }
+
+    @Override
+    public int maxDepth() {
+        return depth();
+    }
+}
@@ -4,6 +4,8 @@ import collisions.BoundingBox;
 import collisions.llist.LList;
 
 import java.awt.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 public class QuadTreeNode<T extends WithBB> extends QuadTree<T>{
     private Graphics2D g2d;
@@ -13,49 +15,182 @@ public class QuadTreeNode<T extends WithBB> extends QuadTree<T>{
     private QuadTree<T> se;
 
     public QuadTreeNode(BoundingBox boundingBox) {
-        super(boundingBox);
-        nw = new QuadTreeLeaf<T>(boundingBox.topLeftQuarter());
-        ne = new QuadTreeLeaf<T>(boundingBox.topRightQuarter());
-        sw = new QuadTreeLeaf<T>(boundingBox.bottomLeftQuarter());
-        se = new QuadTreeLeaf<T>(boundingBox.bottomRightQuarter());
+        this(boundingBox, 0, new QuadTreeParameters());
+    }
+
+    QuadTreeNode(BoundingBox boundingBox, int depth, QuadTreeParameters parameters) {
+        super(boundingBox, depth, parameters);
+        nw = new QuadTreeLeaf<T>(boundingBox.topLeftQuarter(), LList.empty(), depth + 1, parameters);
+        ne = new QuadTreeLeaf<T>(boundingBox.topRightQuarter(), LList.empty(), depth + 1, parameters);
+        sw = new QuadTreeLeaf<T>(boundingBox.bottomLeftQuarter(), LList.empty(), depth + 1, parameters);
+        se = new QuadTreeLeaf<T>(boundingBox.bottomRightQuarter(), LList.empty(), depth + 1, parameters);
     }
 
 
     @Override
     public QuadTree<T> add(T object) {
-        if (object.boundingBox().intersects(nw.boundingBox())) {
+        if (object.intersects(nw.boundingBox())) {
             nw = nw.add(object);
         }
-        if (object.boundingBox().intersects(ne.boundingBox())) {
+        if (object.intersects(ne.boundingBox())) {
             ne = ne.add(object);
         }
-        if (object.boundingBox().intersects(sw.boundingBox())) {
+        if (object.intersects(sw.boundingBox())) {
             sw = sw.add(object);
         }
-        if (object.boundingBox().intersects(se.boundingBox())) {
+        if (object.intersects(se.boundingBox())) {
             se = se.add(object);
         }
         return this;
 
     }
 
+    @Override
+    public QuadTree<T> remove(T object, WithBB bb) {
+        if (bb.intersects(nw.boundingBox())) {
+            nw = nw.remove(object, bb);
+        }
+        if (bb.intersects(ne.boundingBox())) {
+            ne = ne.remove(object, bb);
+        }
+        if (bb.intersects(sw.boundingBox())) {
+            sw = sw.remove(object, bb);
+        }
+        if (bb.intersects(se.boundingBox())) {
+            se = se.remove(object, bb);
+        }
+        return collapse();
+    }
+
+    @Override
+    QuadTree<T> update(T object, WithBB oldBB, WithBB newBB) {
+        nw = update(nw, object, oldBB, newBB);
+        ne = update(ne, object, oldBB, newBB);
+        sw = update(sw, object, oldBB, newBB);
+        se = update(se, object, oldBB, newBB);
+        return collapse();
+    }
+
+    private QuadTree<T> update(QuadTree<T> child, T object, WithBB oldBB, WithBB newBB) {
+        boolean wasInside = oldBB.intersects(child.boundingBox());
+        boolean isInside = newBB.intersects(child.boundingBox());
+        if (wasInside && isInside) {
+            return child.update(object, oldBB, newBB);
+        } else if (wasInside) {
+            return child.remove(object, oldBB);
+        } else if (isInside) {
+            return child.add(object);
+        }
+        return child;
+    }
+
+    /**
+     * @return une feuille regroupant les objets des enfants s'ils sont tous des feuilles et contiennent ensemble au
+     * plus <code>capacity / 2</code> objets, <code>this</code> sinon
+     */
+    private QuadTree<T> collapse() {
+        if (!(nw instanceof QuadTreeLeaf<T> nwLeaf && ne instanceof QuadTreeLeaf<T> neLeaf
+                && sw instanceof QuadTreeLeaf<T> swLeaf && se instanceof QuadTreeLeaf<T> seLeaf)) {
+            return this;
+        }
+        if (nwLeaf.list().size() + neLeaf.list().size() + swLeaf.list().size() + seLeaf.list().size() > parameters().capacity() / 2) {
+            return this;
+        }
+        // Un objet à cheval sur plusieurs quarts est présent dans plusieurs feuilles
+        LList<T> merged = nwLeaf.list();
+        merged = mergeInto(merged, neLeaf.list());
+        merged = mergeInto(merged, swLeaf.list());
+        merged = mergeInto(merged, seLeaf.list());
+        return new QuadTreeLeaf<>(boundingBox(), merged, depth(), parameters());
+    }
+
+    private LList<T> mergeInto(LList<T> acc, LList<T> list) {
+        for (T o : list) {
+            if (!acc.contains(o)) {
+                acc = acc.prepend(o);
+            }
+        }
+        return acc;
+    }
+
     @Override
     public LList<T> intersecting(T object, LList<T> acc) {
-        if (object.boundingBox().intersects(nw.boundingBox())) {
+        if (object.intersects(nw.boundingBox())) {
             acc = nw.intersecting(object, acc);
         }
-        if (object.boundingBox().intersects(ne.boundingBox())) {
+        if (object.intersects(ne.boundingBox())) {
             acc = ne.intersecting(object, acc);
         }
-        if (object.boundingBox().intersects(sw.boundingBox())) {
+        if (object.intersects(sw.boundingBox())) {
             acc = sw.intersecting(object, acc);
         }
-        if (object.boundingBox().intersects(se.boundingBox())) {
+        if (object.intersects(se.boundingBox())) {
             acc = se.intersecting(object, acc);
         }
         return acc;
     }
 
+    @Override
+    void intersecting(WithBB query, Consumer<? super T> visitor, BoundingBox root) {
+        if (query.intersects(nw.boundingBox())) {
+            nw.intersecting(query, visitor, root);
+        }
+        if (query.intersects(ne.boundingBox())) {
+            ne.intersecting(query, visitor, root);
+        }
+        if (query.intersects(sw.boundingBox())) {
+            sw.intersecting(query, visitor, root);
+        }
+        if (query.intersects(se.boundingBox())) {
+            se.intersecting(query, visitor, root);
+        }
+    }
+
+    @Override
+    void withinRadius(double x, double y, double r, Consumer<? super T> visitor, BoundingBox root) {
+        withinRadius(nw, x, y, r, visitor, root);
+        withinRadius(ne, x, y, r, visitor, root);
+        withinRadius(sw, x, y, r, visitor, root);
+        withinRadius(se, x, y, r, visitor, root);
+    }
+
+    private void withinRadius(QuadTree<T> child, double x, double y, double r, Consumer<? super T> visitor, BoundingBox root) {
+        if (child.reaches(x - r, x + r, y - r, y + r, root)) {
+            child.withinRadius(x, y, r, visitor, root);
+        }
+    }
+
+    @Override
+    void expand(NearestSearch<T> search) {
+        search.push(nw);
+        search.push(ne);
+        search.push(sw);
+        search.push(se);
+    }
+
+    @Override
+    void forEachPair(BiConsumer<? super T, ? super T> consumer, BoundingBox root) {
+        nw.forEachPair(consumer, root);
+        ne.forEachPair(consumer, root);
+        sw.forEachPair(consumer, root);
+        se.forEachPair(consumer, root);
+    }
+
+    @Override
+    public int nodeCount() {
+        return 1 + nw.nodeCount() + ne.nodeCount() + sw.nodeCount() + se.nodeCount();
+    }
+
+    @Override
+    public int leafCount() {
+        return nw.leafCount() + ne.leafCount() + sw.leafCount() + se.leafCount();
+    }
+
+    @Override
+    public int maxDepth() {
+        return Math.max(Math.max(nw.maxDepth(), ne.maxDepth()), Math.max(sw.maxDepth(), se.maxDepth()));
+    }
+
     @Override
     public void draw(Graphics2D g2d, double height) {
         nw.draw(g2d, height);
@@ -0,0 +1,89 @@
+package org.example.quadtree;
+
+/**
+ * Forme d'un quadtree : nombre d'objets au-delà duquel une feuille est subdivisée, et profondeur au-delà de laquelle
+ * elle ne l'est plus. Les paramètres sont partagés par tous les nœuds d'un arbre et peuvent changer pendant sa vie,
+ * par exemple sous l'effet d'un {@link QuadTreeTuner} : un arbre conservé d'un cycle à l'autre s'y conforme au fil des
+ * ajouts et des retraits, un arbre reconstruit à chaque cycle dès sa reconstruction suivante.
+ */
+public final class QuadTreeParameters {
+    /**
+     * Nombre d'objets par défaut au-delà duquel une feuille est subdivisée. Un nœud redevient une feuille lorsque ses
+     * descendants contiennent ensemble au plus <code>capacity / 2</code> objets, ce qui évite d'alterner subdivision
+     * et fusion à chaque mouvement.
+     */
+    public static final int CAPACITY = 10;
+
+    /**
+     * Profondeur maximale par défaut : sans limite, plus de <code>capacity</code> objets superposés provoquent une
+     * subdivision sans fin.
+     */
+    public static final int MAX_DEPTH = 10;
+
+    /**
+     * Profondeur maximale admise, bien avant que les quarts d'une case ne deviennent dégénérés
+     */
+    public static final int DEPTH_LIMIT = 30;
+
+    private int capacity;
+    private int maxDepth;
+
+    public QuadTreeParameters() {
+        this(CAPACITY, MAX_DEPTH);
+    }
+
+    /**
+     * @throws IllegalArgumentException si <code>capacity</code> n'est pas positive ou si <code>maxDepth</code> n'est
+     *                                  pas entre 0 et <code>DEPTH_LIMIT</code>
+     */
+    public QuadTreeParameters(int capacity, int maxDepth) {
+        set(capacity, maxDepth);
+    }
+
+    /**
+     * @param text <code>capacity</code> ou <code>capacity:maxDepth</code>
+     * @throws IllegalArgumentException si <code>text</code> n'a pas cette forme
+     */
+    public static QuadTreeParameters parse(String text) {
+        String[] parts = text.split(":");
+        try {
+            if (parts.length == 1) {
+                return new QuadTreeParameters(Integer.parseInt(parts[0]), MAX_DEPTH);
+            }
+            if (parts.length == 2) {
+                return new QuadTreeParameters(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid quadtree parameters: " + text, e);
+        }
+        throw new IllegalArgumentException("Invalid quadtree parameters: " + text);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int maxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * @throws IllegalArgumentException si <code>capacity</code> n'est pas positive ou si <code>maxDepth</code> n'est
+     *                                  pas entre 0 et <code>DEPTH_LIMIT</code>
+     */
+    public void set(int capacity, int maxDepth) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        if (maxDepth < 0 || maxDepth > DEPTH_LIMIT) {
+            throw new IllegalArgumentException("Maximum depth must be between 0 and " + DEPTH_LIMIT + ": " + maxDepth);
+        }
+        this.capacity = capacity;
+        this.maxDepth = maxDepth;
+    }
+
+    @Override
+    public String toString() {
+        return "capacity " + capacity + ", max depth " + maxDepth;
+    }
+}
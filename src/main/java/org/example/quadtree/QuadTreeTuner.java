@@ -0,0 +1,140 @@
+package org.example.quadtree;
+
+import collisions.BoundingBox;
+
+/**
+ * Ajuste les {@link QuadTreeParameters} d'un arbre à la charge observée, cycle après cycle.
+ * <p>
+ * La profondeur maximale découle de la taille des objets : au-delà de la profondeur où les cases deviennent plus
+ * petites qu'un objet, subdiviser ne sépare plus les objets (chacun déborde sur les cases voisines) et ne sert qu'à
+ * épuiser la pile sur des amas d'objets superposés. La capacité des feuilles est cherchée par descente sur le coût
+ * mesuré : tous les <code>WINDOW</code> cycles, le coût moyen par objet de la mise à jour et du parcours de l'arbre
+ * est comparé à celui de la fenêtre précédente ; la capacité continue dans la même direction (multipliée ou divisée
+ * par <code>STEP</code>) si le coût a baissé, et repart dans l'autre sinon. Elle oscille ainsi autour de la meilleure
+ * valeur pour la densité courante, et la suit si la charge change.
+ * <p>
+ * La capacité initiale est proportionnelle à la densité observée : <code>INITIAL_OCCUPANCY</code> fois le nombre
+ * moyen d'objets par case de la taille d'un objet.
+ */
+public class QuadTreeTuner {
+    /**
+     * Nombre de cycles par mesure du coût
+     */
+    public static final int WINDOW = 16;
+
+    /**
+     * Facteur de variation de la capacité entre deux mesures
+     */
+    static final double STEP = 1.25;
+
+    /**
+     * Bornes de la capacité
+     */
+    static final int MIN_CAPACITY = 2;
+    static final int MAX_CAPACITY = 128;
+
+    /**
+     * Hausse relative du coût en dessous de laquelle une mesure n'est pas considérée comme une dégradation, pour ne
+     * pas changer de direction sur du bruit
+     */
+    private static final double TOLERANCE = 0.02;
+
+    private static final double INITIAL_OCCUPANCY = 16;
+
+    private final QuadTreeParameters parameters;
+    private final double side;
+    private final double area;
+
+    /**
+     * Sens de la prochaine variation de la capacité : 1 pour l'augmenter, -1 pour la diminuer
+     */
+    private int direction = 1;
+    private double previousCost = Double.NaN;
+    private boolean initialized;
+
+    /**
+     * Mesures de la fenêtre en cours
+     */
+    private int frames;
+    private long nanos;
+    private long objects;
+
+    /**
+     * @param parameters paramètres de l'arbre, modifiés par {@link #observe}
+     * @param bounds     espace couvert par l'arbre
+     */
+    public QuadTreeTuner(QuadTreeParameters parameters, BoundingBox bounds) {
+        this.parameters = parameters;
+        this.side = Math.min(bounds.width(), bounds.height());
+        this.area = bounds.width() * bounds.height();
+    }
+
+    public QuadTreeParameters parameters() {
+        return parameters;
+    }
+
+    /**
+     * @return le dernier coût moyen mesuré, en nanosecondes par objet et par cycle, ou <code>NaN</code> avant la
+     * première mesure
+     */
+    public double cost() {
+        return previousCost;
+    }
+
+    /**
+     * Enregistre les mesures d'un cycle, et ajuste les paramètres à la fin de chaque fenêtre.
+     *
+     * @param count       nombre d'objets de l'arbre
+     * @param objectSize  taille du plus grand objet
+     * @param insertNanos durée de la mise à jour (ou de la construction) de l'arbre
+     * @param queryNanos  durée du parcours de l'arbre
+     */
+    public void observe(int count, double objectSize, long insertNanos, long queryNanos) {
+        int maxDepth = depthFor(objectSize);
+        if (!initialized) {
+            double occupancy = count * objectSize * objectSize / area;
+            parameters.set(clamp((int) Math.round(occupancy * INITIAL_OCCUPANCY)), maxDepth);
+            initialized = true;
+            return;
+        }
+        frames++;
+        nanos += insertNanos + queryNanos;
+        objects += count;
+        if (frames < WINDOW) {
+            return;
+        }
+        double cost = (double) nanos / Math.max(1, objects);
+        if (cost > previousCost * (1 + TOLERANCE)) {
+            direction = -direction;
+        }
+        previousCost = cost;
+        int capacity = parameters.capacity();
+        int next = clamp(direction > 0 ? (int) Math.ceil(capacity * STEP) : (int) Math.floor(capacity / STEP));
+        if (next == capacity) {
+            // Borne atteinte : la prochaine mesure repartira dans l'autre sens
+            direction = -direction;
+        }
+        parameters.set(next, maxDepth);
+        frames = 0;
+        nanos = 0;
+        objects = 0;
+    }
+
+    /**
+     * @return la profondeur des plus petites cases encore au moins aussi grandes que <code>objectSize</code>
+     */
+    private int depthFor(double objectSize) {
+        if (!(objectSize > 0)) {
+            return parameters.maxDepth();
+        }
+        int depth = 0;
+        while (depth < QuadTreeParameters.DEPTH_LIMIT && side / (1L << depth + 1) >= objectSize) {
+            depth++;
+        }
+        return depth;
+    }
+
+    private static int clamp(int capacity) {
+        return Math.max(MIN_CAPACITY, Math.min(MAX_CAPACITY, capacity));
+    }
+}
@@ -0,0 +1,141 @@
+package org.example.quadtree;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Tri par base (LSD, 8 bits par passe) de clés entières positives accompagnées d'une valeur, réparti sur un
+ * {@link ForkJoinPool}.
+ * <p>
+ * Le tableau est découpé en blocs. À chaque passe, chaque bloc compte ses chiffres en parallèle ; les positions de
+ * départ de chaque (chiffre, bloc) sont calculées séquentiellement, puis chaque bloc range ses éléments en parallèle.
+ * Les blocs rangent leurs éléments dans l'ordre des blocs : le tri est stable, et son résultat ne dépend pas de
+ * l'ordonnancement des threads.
+ */
+final class RadixSort {
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+
+    /**
+     * En dessous de cette taille de bloc, le découpage coûte plus qu'il ne rapporte
+     */
+    private static final int MIN_BLOCK = 1 << 14;
+
+    private final ForkJoinPool pool;
+    private int[] tmpKeys = new int[0];
+    private int[] tmpValues = new int[0];
+    private int[][] counts = new int[0][];
+
+    RadixSort(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Trie les <code>n</code> premiers éléments de <code>keys</code> par ordre croissant, en déplaçant
+     * <code>values</code> avec eux.
+     *
+     * @param bits nombre de bits significatifs des clés
+     */
+    void sort(int[] keys, int[] values, int n, int bits) {
+        if (tmpKeys.length < n) {
+            tmpKeys = new int[keys.length];
+            tmpValues = new int[keys.length];
+        }
+        int blocks = blocks(n);
+        if (counts.length != blocks) {
+            counts = new int[blocks][RADIX];
+        }
+        int[] srcKeys = keys;
+        int[] srcValues = values;
+        int[] dstKeys = tmpKeys;
+        int[] dstValues = tmpValues;
+        int passes = (bits + RADIX_BITS - 1) / RADIX_BITS;
+        for (int pass = 0; pass < passes; pass++) {
+            int shift = pass * RADIX_BITS;
+            int[] sk = srcKeys;
+            int[] sv = srcValues;
+            int[] dk = dstKeys;
+            int[] dv = dstValues;
+            forEachBlock(blocks, b -> {
+                int[] count = counts[b];
+                Arrays.fill(count, 0);
+                for (int k = b * n / blocks, end = (b + 1) * n / blocks; k < end; k++) {
+                    count[(sk[k] >>> shift) & (RADIX - 1)]++;
+                }
+            });
+            // Position de départ de chaque (chiffre, bloc) : chiffre par chiffre, puis bloc par bloc
+            int start = 0;
+            for (int digit = 0; digit < RADIX; digit++) {
+                for (int b = 0; b < blocks; b++) {
+                    int c = counts[b][digit];
+                    counts[b][digit] = start;
+                    start += c;
+                }
+            }
+            forEachBlock(blocks, b -> {
+                int[] position = counts[b];
+                for (int k = b * n / blocks, end = (b + 1) * n / blocks; k < end; k++) {
+                    int p = position[(sk[k] >>> shift) & (RADIX - 1)]++;
+                    dk[p] = sk[k];
+                    dv[p] = sv[k];
+                }
+            });
+            srcKeys = dk;
+            srcValues = dv;
+            dstKeys = sk;
+            dstValues = sv;
+        }
+        if (srcKeys != keys) {
+            System.arraycopy(srcKeys, 0, keys, 0, n);
+            System.arraycopy(srcValues, 0, values, 0, n);
+        }
+    }
+
+    /**
+     * @return le nombre de blocs entre lesquels répartir <code>n</code> éléments. Le bloc <code>b</code> va de
+     * <code>b * n / blocks</code> (inclus) à <code>(b + 1) * n / blocks</code> (exclu).
+     */
+    int blocks(int n) {
+        return Math.max(1, Math.min(pool.getParallelism() * 4, n / MIN_BLOCK));
+    }
+
+    /**
+     * Exécute <code>block</code> pour chaque bloc de <code>0</code> à <code>blocks - 1</code>, en parallèle, et
+     * attend la fin de tous les blocs.
+     */
+    void forEachBlock(int blocks, IntConsumer block) {
+        if (blocks == 1) {
+            block.accept(0);
+        } else {
+            pool.invoke(new BlockTask(block, 0, blocks));
+        }
+    }
+
+    /**
+     * Exécute <code>block</code> pour les blocs <code>from</code> (inclus) à <code>to</code> (exclu), en les
+     * divisant récursivement.
+     */
+    private static class BlockTask extends RecursiveAction {
+        private final IntConsumer block;
+        private final int from;
+        private final int to;
+
+        BlockTask(IntConsumer block, int from, int to) {
+            this.block = block;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new BlockTask(block, from, middle), new BlockTask(block, middle, to));
+            } else {
+                block.accept(from);
+            }
+        }
+    }
+}
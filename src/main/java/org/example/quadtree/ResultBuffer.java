@@ -0,0 +1,51 @@
+package org.example.quadtree;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Résultats d'une requête stockés dans un tableau extensible, réutilisable d'une requête à l'autre : une fois le
+ * tableau à la bonne taille, une requête n'alloue plus rien.
+ */
+public class ResultBuffer<T> implements Consumer<T> {
+    private Object[] elements = new Object[16];
+    private int size;
+
+    @Override
+    public void accept(T element) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, elements.length * 2);
+        }
+        elements[size++] = element;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(int k) {
+        return (T) elements[k];
+    }
+
+    /**
+     * Vide le tampon. Les références sont effacées pour ne pas retenir les objets.
+     */
+    public void clear() {
+        Arrays.fill(elements, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Transmet les éléments à <code>consumer</code>, dans leur ordre d'ajout.
+     */
+    public void forEach(Consumer<? super T> consumer) {
+        for (int k = 0; k < size; k++) {
+            consumer.accept(get(k));
+        }
+    }
+}
@@ -2,6 +2,47 @@ package org.example.quadtree;
 
 import collisions.BoundingBox;
 
+/**
+ * Objet rangé dans un {@link QuadTree}. Les accesseurs primitifs permettent aux objets mobiles de fournir leurs
+ * bornes sans allouer de {@link BoundingBox} : le quadtree ne passe que par eux pour ses tests d'intersection.
+ */
 public interface WithBB {
     BoundingBox boundingBox();
+
+    default double left() {
+        return boundingBox().left();
+    }
+
+    default double right() {
+        return boundingBox().right();
+    }
+
+    default double top() {
+        return boundingBox().top();
+    }
+
+    default double bottom() {
+        return boundingBox().bottom();
+    }
+
+    /**
+     * Distance utilisée par {@link QuadTree#nearest} et {@link QuadTree#withinRadius}. Un objet qui n'occupe pas toute
+     * sa bounding box peut la redéfinir, à condition qu'elle reste la distance à un point de sa bounding box.
+     *
+     * @return le carré de la distance entre le point (<code>x</code>, <code>y</code>) et la bounding box, nul si le
+     * point est à l'intérieur
+     */
+    default double distanceSquared(double x, double y) {
+        double dx = Math.max(Math.max(left() - x, x - right()), 0);
+        double dy = Math.max(Math.max(bottom() - y, y - top()), 0);
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * @return <code>true</code> si et seulement si l'intersection des bounding boxes de <code>this</code> et
+     * <code>that</code> n'est pas vide
+     */
+    default boolean intersects(WithBB that) {
+        return this.left() < that.right() && that.left() < this.right() && this.bottom() < that.top() && that.bottom() < this.top();
+    }
 }
@@ -0,0 +1,244 @@
+package org.example.recording;
+
+import collisions.AsteroidField;
+import collisions.Simulation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static collisions.VarInts.*;
+import static collisions.recording.RecordingFormat.*;
+
+/**
+ * Enregistre l'état d'une {@link Simulation} à chaque cycle dans un fichier relu par {@link Replayer} (voir
+ * {@link RecordingFormat}).
+ * <p>
+ * Une image clé est écrite tous les <code>keyframeInterval</code> cycles ; entre deux images clés, seuls les
+ * astéroïdes que le déplacement ne suffit pas à reproduire sont écrits. Pour les repérer, l'enregistreur tient à jour
+ * une copie de l'état tel que le lecteur le reconstruira. Chaque trame est encodée dans un tampon réutilisé, puis
+ * écrite d'un bloc dans le {@link FileChannel}.
+ */
+public class Recorder implements Closeable {
+    /**
+     * Nombre de cycles par défaut entre deux images clés
+     */
+    public static final int KEYFRAME_INTERVAL = 100;
+
+    private final Simulation simulation;
+    private final FileChannel channel;
+    private final int keyframeInterval;
+
+    /**
+     * État reconstruit par le lecteur au dernier cycle enregistré
+     */
+    private final AsteroidField mirror;
+
+    private ByteBuffer frame = ByteBuffer.allocateDirect(1 << 20);
+
+    /**
+     * Numéros de cycle et positions des images clés
+     */
+    private long[] keyframeTicks = new long[16];
+    private long[] keyframeOffsets = new long[16];
+    private int keyframes;
+
+    private long lastTick = -1;
+    private boolean closed;
+
+    /**
+     * Crée (ou remplace) le fichier <code>path</code> et y enregistre l'état actuel de <code>simulation</code>.
+     *
+     * @param keyframeInterval nombre de cycles entre deux images clés
+     * @throws IOException si le fichier ne peut être écrit
+     */
+    public Recorder(Path path, Simulation simulation, int keyframeInterval) throws IOException {
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("Keyframe interval must be positive: " + keyframeInterval);
+        }
+        this.simulation = simulation;
+        this.keyframeInterval = keyframeInterval;
+        this.mirror = new AsteroidField(simulation.asteroids().size());
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putDouble(simulation.timestep()).putInt(keyframeInterval);
+        write(header.flip());
+        record();
+    }
+
+    /**
+     * Enregistre l'état de la simulation au cycle en cours. Doit être appelé après chaque cycle, sur le thread de la
+     * simulation ; sans effet une fois l'enregistreur fermé.
+     *
+     * @throws IOException si le fichier ne peut être écrit
+     */
+    public synchronized void record() throws IOException {
+        if (closed) {
+            return;
+        }
+        long tick = simulation.ticks();
+        if (lastTick >= 0 && tick != lastTick + 1) {
+            throw new IllegalStateException("Tick " + tick + " does not follow recorded tick " + lastTick);
+        }
+        AsteroidField field = simulation.asteroids();
+        if (keyframes == 0 || tick - keyframeTicks[keyframes - 1] >= keyframeInterval) {
+            writeKeyframe(field, tick);
+        } else {
+            writeDelta(field, tick);
+        }
+        lastTick = tick;
+    }
+
+    private void writeKeyframe(AsteroidField field, long tick) throws IOException {
+        if (keyframes == keyframeTicks.length) {
+            keyframeTicks = Arrays.copyOf(keyframeTicks, keyframes * 2);
+            keyframeOffsets = Arrays.copyOf(keyframeOffsets, keyframes * 2);
+        }
+        keyframeTicks[keyframes] = tick;
+        keyframeOffsets[keyframes] = channel.position();
+        keyframes++;
+
+        int n = field.size();
+        beginFrame(KEYFRAME);
+        putVarLong(frame, tick);
+        putVarLong(frame, n);
+        mirror.truncate(0);
+        for (int i = 0; i < n; i++) {
+            ensureCapacity(MAX_ENTRY_BYTES);
+            putAsteroid(field, i);
+            mirror.restore(i, field.id(i), field.x(i), field.y(i), field.vx(i), field.vy(i), field.radius(i),
+                    field.sheet(i), field.sprite(i));
+        }
+        endFrame();
+    }
+
+    /**
+     * Écrit les astéroïdes de <code>field</code> qui diffèrent de la copie déplacée d'un cycle, et met la copie à
+     * jour
+     */
+    private void writeDelta(AsteroidField field, long tick) throws IOException {
+        int n = field.size();
+        double dt = simulation.timestep();
+        beginFrame(DELTA);
+        putVarLong(frame, tick);
+        putVarLong(frame, n);
+        // Nombre d'astéroïdes modifiés, réécrit une fois connu sur 5 octets
+        int countPosition = frame.position();
+        frame.position(countPosition + 5);
+        int changes = 0;
+        int previous = -1;
+        for (int i = 0; i < n; i++) {
+            int flags;
+            if (i >= mirror.size() || mirror.id(i) != field.id(i)) {
+                flags = NEW;
+            } else {
+                flags = 0;
+                if (mirror.vx(i) != field.vx(i) || mirror.vy(i) != field.vy(i)) {
+                    flags |= VELOCITY;
+                    mirror.setVelocity(i, field.vx(i), field.vy(i));
+                }
+                mirror.move(i, dt);
+                if (mirror.x(i) != field.x(i) || mirror.y(i) != field.y(i)) {
+                    flags |= POSITION;
+                    mirror.setPosition(i, field.x(i), field.y(i));
+                }
+            }
+            if (flags == 0) {
+                continue;
+            }
+            ensureCapacity(MAX_ENTRY_BYTES);
+            putVarLong(frame, i - previous);
+            frame.put((byte) flags);
+            if (flags == NEW) {
+                putAsteroid(field, i);
+                mirror.restore(i, field.id(i), field.x(i), field.y(i), field.vx(i), field.vy(i), field.radius(i),
+                        field.sheet(i), field.sprite(i));
+            } else {
+                if ((flags & VELOCITY) != 0) {
+                    frame.putDouble(field.vx(i)).putDouble(field.vy(i));
+                }
+                if ((flags & POSITION) != 0) {
+                    frame.putDouble(field.x(i)).putDouble(field.y(i));
+                }
+            }
+            previous = i;
+            changes++;
+        }
+        mirror.truncate(n);
+        // Varint de longueur fixe : 4 octets de 7 bits avec bit de continuation, puis le dernier
+        for (int k = 0; k < 5; k++) {
+            int bits = changes >>> 7 * k & 0x7F;
+            frame.put(countPosition + k, (byte) (k < 4 ? bits | 0x80 : bits));
+        }
+        endFrame();
+    }
+
+    private void putAsteroid(AsteroidField field, int i) {
+        putVarLong(frame, field.id(i));
+        frame.putDouble(field.x(i)).putDouble(field.y(i));
+        frame.putDouble(field.vx(i)).putDouble(field.vy(i));
+        frame.putDouble(field.radius(i));
+        putVarLong(frame, field.sheet(i));
+        frame.putInt(field.sprite(i));
+    }
+
+    /**
+     * Commence une trame de type <code>kind</code>, dont la longueur est réservée en tête du tampon
+     */
+    private void beginFrame(byte kind) {
+        frame.clear();
+        frame.putInt(0);
+        frame.put(kind);
+    }
+
+    private void endFrame() throws IOException {
+        frame.putInt(0, frame.position() - 4);
+        write(frame.flip());
+    }
+
+    /**
+     * Agrandit le tampon de trame s'il reste moins de <code>bytes</code> octets
+     */
+    private void ensureCapacity(int bytes) {
+        if (frame.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocateDirect(frame.capacity() * 2);
+            larger.put(frame.flip());
+            frame = larger;
+        }
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Écrit l'index des images clés et ferme le fichier
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            long indexOffset = channel.position();
+            beginFrame(INDEX);
+            putVarLong(frame, keyframes);
+            for (int k = 0; k < keyframes; k++) {
+                ensureCapacity(16);
+                frame.putLong(keyframeTicks[k]).putLong(keyframeOffsets[k]);
+            }
+            endFrame();
+            write(ByteBuffer.allocate(FOOTER_BYTES).putLong(indexOffset).putInt(MAGIC).flip());
+        } finally {
+            channel.close();
+        }
+    }
+}
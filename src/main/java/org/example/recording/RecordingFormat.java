@@ -0,0 +1,48 @@
+package org.example.recording;
+
+/**
+ * Format des enregistrements écrits par {@link Recorder} et relus par {@link Replayer}.
+ * <p>
+ * Le fichier commence par un en-tête : <code>MAGIC</code>, <code>VERSION</code>, la durée d'un cycle
+ * (<code>double</code>) et l'intervalle entre images clés (<code>int</code>). Suivent des trames, chacune précédée
+ * de sa longueur en octets (<code>int</code>) et commençant par son type (un octet) :
+ * <ul>
+ * <li> <code>KEYFRAME</code> : numéro du cycle et nombre d'astéroïdes (varints, voir {@link collisions.VarInts}),
+ * puis l'état complet de chaque astéroïde ;
+ * <li> <code>DELTA</code> : numéro du cycle, nombre d'astéroïdes et nombre d'astéroïdes modifiés (varints), puis pour
+ * chaque astéroïde modifié l'écart à l'indice du précédent (varint), un octet de drapeaux et les valeurs modifiées ;
+ * <li> <code>INDEX</code> : nombre d'images clés (varint), puis le numéro de cycle et la position de chacune
+ * (<code>long</code>).
+ * </ul>
+ * Le fichier se termine par la position de la trame <code>INDEX</code> (<code>long</code>) et <code>MAGIC</code>. Un
+ * fichier sans index (enregistrement interrompu) reste lisible : ses trames sont alors parcourues à l'ouverture.
+ * <p>
+ * Un astéroïde est « modifié » s'il diffère de l'état que le lecteur obtient en déplaçant l'astéroïde du cycle
+ * précédent : nouvel astéroïde (<code>NEW</code>, état complet), vitesse changée par une collision
+ * (<code>VELOCITY</code>, appliquée avant le déplacement) ou position différente de celle obtenue par le déplacement
+ * (<code>POSITION</code>, appliquée après). Les valeurs réelles sont écrites telles quelles : la relecture est exacte
+ * au bit près.
+ */
+final class RecordingFormat {
+    static final int MAGIC = 0x41535452;
+    static final int VERSION = 1;
+
+    static final byte KEYFRAME = 1;
+    static final byte DELTA = 2;
+    static final byte INDEX = 3;
+
+    static final int NEW = 1;
+    static final int VELOCITY = 2;
+    static final int POSITION = 4;
+
+    static final int HEADER_BYTES = 4 + 4 + 8 + 4;
+    static final int FOOTER_BYTES = 8 + 4;
+
+    /**
+     * Taille maximale de l'état complet d'un astéroïde, précédé de son écart et de ses drapeaux
+     */
+    static final int MAX_ENTRY_BYTES = 5 + 1 + 10 + 5 * 8 + 5 + 4;
+
+    private RecordingFormat() {
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.recording;
+
+import collisions.AsteroidField;
+import collisions.BoundingBox;
+import collisions.Simulation;
+import collisions.broadphase.BroadPhase;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Rejoue un enregistrement et mesure la détection des collisions sur chacun de ses cycles : la phase large choisie
+ * et le test exact des paires candidates traitent exactement les états enregistrés, sans le coût de la simulation.
+ * <p>
+ * Usage : <code>ReplayRunner fichier [premier cycle] [cycles]</code>, avec les propriétés système
+ * <code>broadphase</code> (voir {@link BroadPhase#byName}), <code>width</code> et <code>height</code>, qui doivent être
+ * celles de l'enregistrement.
+ */
+public class ReplayRunner {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: ReplayRunner <recording> [first tick] [ticks]");
+            System.exit(2);
+        }
+        int width = Integer.getInteger("width", 1600);
+        int height = Integer.getInteger("height", 900);
+        String broadPhaseName = System.getProperty("broadphase", "grid");
+
+        try (Replayer replayer = new Replayer(Path.of(args[0]))) {
+            long first = args.length > 1 ? Long.parseLong(args[1]) : replayer.firstTick();
+            long ticks = args.length > 2 ? Long.parseLong(args[2]) : Long.MAX_VALUE;
+            BoundingBox boundingBox = Simulation.boundsFor(width, height);
+            BroadPhase broadPhase = BroadPhase.byName(broadPhaseName, boundingBox, Simulation.RADIUS);
+
+            long seekStart = System.nanoTime();
+            replayer.seek(first);
+            double seekSeconds = (System.nanoTime() - seekStart) / 1e9;
+
+            long replayed = 0;
+            long decodeNanos = 0;
+            long detectNanos = 0;
+            long[] counts = new long[2];
+            do {
+                AsteroidField field = replayer.field();
+                long start = System.nanoTime();
+                broadPhase.findPairs(field, (i, j) -> {
+                    counts[0]++;
+                    if (field.overlaps(i, j)) {
+                        counts[1]++;
+                    }
+                });
+                long detected = System.nanoTime();
+                detectNanos += detected - start;
+                replayed++;
+                if (replayed == ticks || !replayer.next()) {
+                    break;
+                }
+                decodeNanos += System.nanoTime() - detected;
+            } while (true);
+
+            System.out.printf("broad phase        %s%n", broadPhaseName);
+            System.out.printf("ticks              %d to %d%n", first, replayer.tick());
+            System.out.printf("asteroids          %d (last tick)%n", replayer.field().size());
+            System.out.printf("seek               %.3f s%n", seekSeconds);
+            System.out.printf("decode             %.1f ticks/s%n", replayed / (decodeNanos / 1e9));
+            System.out.printf("detection          %.1f ticks/s%n", replayed / (detectNanos / 1e9));
+            System.out.printf("candidates/tick    %.1f%n", (double) counts[0] / replayed);
+            System.out.printf("overlaps/tick      %.1f%n", (double) counts[1] / replayed);
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package org.example.recording;
+
+import collisions.AsteroidField;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static collisions.VarInts.*;
+import static collisions.recording.RecordingFormat.*;
+
+/**
+ * Relit un enregistrement écrit par {@link Recorder} et reconstruit, cycle par cycle, l'état exact des astéroïdes.
+ * <p>
+ * Le fichier est projeté en mémoire par fenêtres d'au moins <code>WINDOW</code> octets : les trames sont décodées
+ * directement depuis les pages du fichier, sans copie, et la taille du fichier n'est pas limitée à celle d'un
+ * {@link MappedByteBuffer}. {@link #seek} part de la dernière image clé qui précède le cycle demandé, trouvée dans
+ * l'index, et applique les trames suivantes.
+ */
+public class Replayer implements Closeable {
+    /**
+     * Taille minimale des fenêtres projetées en mémoire
+     */
+    private static final long WINDOW = 64L << 20;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final double timestep;
+    private final int keyframeInterval;
+
+    /**
+     * Fin de la dernière trame, avant l'index
+     */
+    private final long end;
+
+    /**
+     * Numéros de cycle et positions des images clés, par ordre croissant
+     */
+    private long[] keyframeTicks;
+    private long[] keyframeOffsets;
+    private int keyframes;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    private final AsteroidField field = new AsteroidField(16);
+    private long tick = -1;
+
+    /**
+     * Position de la prochaine trame
+     */
+    private long next;
+
+    /**
+     * Ouvre l'enregistrement <code>path</code>, positionné sur son premier cycle.
+     *
+     * @throws IOException si le fichier ne peut être lu ou n'est pas un enregistrement
+     */
+    public Replayer(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            this.fileSize = channel.size();
+            ByteBuffer header = fileSize < HEADER_BYTES ? null : map(0, HEADER_BYTES);
+            if (header == null || header.getInt() != MAGIC) {
+                throw new IOException("Not a recording: " + path);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported recording version: " + version);
+            }
+            this.timestep = header.getDouble();
+            this.keyframeInterval = header.getInt();
+            this.end = readIndex();
+            if (keyframes == 0) {
+                throw new IOException("Empty recording: " + path);
+            }
+            seek(keyframeTicks[0]);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Lit l'index en fin de fichier ou, s'il manque, le reconstruit en parcourant les trames
+     *
+     * @return la fin de la dernière trame
+     */
+    private long readIndex() throws IOException {
+        if (fileSize >= HEADER_BYTES + FOOTER_BYTES) {
+            ByteBuffer footer = map(fileSize - FOOTER_BYTES, FOOTER_BYTES);
+            long indexOffset = footer.getLong();
+            if (footer.getInt() == MAGIC && indexOffset >= HEADER_BYTES && indexOffset < fileSize - FOOTER_BYTES) {
+                ByteBuffer index = frame(indexOffset);
+                if (index.get() == INDEX) {
+                    keyframes = getVarInt(index);
+                    keyframeTicks = new long[keyframes];
+                    keyframeOffsets = new long[keyframes];
+                    for (int k = 0; k < keyframes; k++) {
+                        keyframeTicks[k] = index.getLong();
+                        keyframeOffsets[k] = index.getLong();
+                    }
+                    return indexOffset;
+                }
+            }
+        }
+        // Enregistrement interrompu : les trames complètes restent utilisables
+        keyframeTicks = new long[16];
+        keyframeOffsets = new long[16];
+        long offset = HEADER_BYTES;
+        while (offset + 5 <= fileSize) {
+            int length = map(offset, 4).getInt();
+            if (length < 1 || offset + 4 + length > fileSize) {
+                break;
+            }
+            ByteBuffer frame = frame(offset);
+            byte kind = frame.get();
+            if (kind == KEYFRAME) {
+                if (keyframes == keyframeTicks.length) {
+                    keyframeTicks = Arrays.copyOf(keyframeTicks, keyframes * 2);
+                    keyframeOffsets = Arrays.copyOf(keyframeOffsets, keyframes * 2);
+                }
+                keyframeTicks[keyframes] = getVarLong(frame);
+                keyframeOffsets[keyframes] = offset;
+                keyframes++;
+            } else if (kind != DELTA) {
+                break;
+            }
+            offset += 4 + length;
+        }
+        return offset;
+    }
+
+    public double timestep() {
+        return timestep;
+    }
+
+    public int keyframeInterval() {
+        return keyframeInterval;
+    }
+
+    public long firstTick() {
+        return keyframeTicks[0];
+    }
+
+    /**
+     * @return le numéro du cycle dont l'état est dans {@link #field()}
+     */
+    public long tick() {
+        return tick;
+    }
+
+    /**
+     * @return l'état des astéroïdes au cycle {@link #tick()}, modifié en place par {@link #next()} et
+     * {@link #seek}
+     */
+    public AsteroidField field() {
+        return field;
+    }
+
+    /**
+     * Se positionne sur le cycle <code>target</code>, à partir de la dernière image clé qui le précède.
+     *
+     * @throws IllegalArgumentException si le cycle n'est pas dans l'enregistrement
+     */
+    public void seek(long target) throws IOException {
+        int k = Arrays.binarySearch(keyframeTicks, 0, keyframes, target);
+        if (k < 0) {
+            k = -k - 2;
+        }
+        if (k < 0) {
+            throw new IllegalArgumentException("Tick " + target + " is before the recording");
+        }
+        // Inutile de repartir de l'image clé si le cycle demandé est devant nous et après elle
+        if (!(tick >= keyframeTicks[k] && tick <= target)) {
+            next = keyframeOffsets[k];
+            tick = -1;
+            next();
+        }
+        while (tick < target) {
+            if (!next()) {
+                throw new IllegalArgumentException("Tick " + target + " is after the recording");
+            }
+        }
+    }
+
+    /**
+     * Passe au cycle suivant.
+     *
+     * @return <code>false</code> si l'enregistrement est terminé, auquel cas l'état n'est pas modifié
+     */
+    public boolean next() throws IOException {
+        if (next >= end) {
+            return false;
+        }
+        long offset = next;
+        ByteBuffer frame = frame(offset);
+        next += 4 + frame.remaining();
+        byte kind = frame.get();
+        if (kind == KEYFRAME) {
+            tick = getVarLong(frame);
+            int n = getVarInt(frame);
+            field.truncate(0);
+            for (int i = 0; i < n; i++) {
+                getAsteroid(frame, i);
+            }
+        } else if (kind == DELTA) {
+            tick = getVarLong(frame);
+            applyDelta(frame, getVarInt(frame));
+        } else {
+            throw new IOException("Corrupted recording: unexpected frame " + kind + " at " + offset);
+        }
+        return true;
+    }
+
+    /**
+     * Applique une trame <code>DELTA</code> : chaque astéroïde est déplacé d'un cycle, après la mise à jour de sa
+     * vitesse et avant celle de sa position s'il est modifié
+     */
+    private void applyDelta(ByteBuffer frame, int n) {
+        int changes = getVarInt(frame);
+        int changed = changes > 0 ? getVarInt(frame) - 1 : n;
+        field.truncate(n);
+        for (int i = 0; i < n; i++) {
+            if (i != changed) {
+                field.move(i, timestep);
+                continue;
+            }
+            int flags = frame.get();
+            if (flags == NEW) {
+                getAsteroid(frame, i);
+            } else {
+                if ((flags & VELOCITY) != 0) {
+                    field.setVelocity(i, frame.getDouble(), frame.getDouble());
+                }
+                field.move(i, timestep);
+                if ((flags & POSITION) != 0) {
+                    field.setPosition(i, frame.getDouble(), frame.getDouble());
+                }
+            }
+            changed = --changes > 0 ? changed + getVarInt(frame) : n;
+        }
+    }
+
+    private void getAsteroid(ByteBuffer frame, int i) {
+        long id = getVarLong(frame);
+        double x = frame.getDouble();
+        double y = frame.getDouble();
+        double vx = frame.getDouble();
+        double vy = frame.getDouble();
+        double radius = frame.getDouble();
+        int sheet = getVarInt(frame);
+        field.restore(i, id, x, y, vx, vy, radius, sheet, frame.getInt());
+    }
+
+    /**
+     * @return le contenu de la trame qui commence à <code>offset</code>, sans sa longueur
+     */
+    private ByteBuffer frame(long offset) throws IOException {
+        int length = map(offset, 4).getInt();
+        return map(offset + 4, length);
+    }
+
+    /**
+     * @return une vue des <code>length</code> octets du fichier à partir de <code>offset</code>, dans la fenêtre
+     * projetée courante ou dans une nouvelle fenêtre qui les contient
+     */
+    private ByteBuffer map(long offset, int length) throws IOException {
+        if (window == null || offset < windowStart || offset + length > windowStart + window.capacity()) {
+            windowStart = offset;
+            long size = Math.min(Math.max(length, WINDOW), fileSize - offset);
+            window = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+        }
+        return window.slice((int) (offset - windowStart), length);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
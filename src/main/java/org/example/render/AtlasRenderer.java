@@ -0,0 +1,80 @@
+package org.example.render;
+
+import collisions.Snapshot;
+import collisions.SpriteSheet;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Rendu par Java2D à partir d'un {@link SpriteAtlas} : chaque astéroïde visible est dessiné par une copie d'un
+ * rectangle d'une page de l'atlas. Les astéroïdes sont regroupés par page avant d'être dessinés, pour que les copies
+ * successives partent de la même image source et restent sur le chemin de copie accéléré ; ceux qui sont hors de
+ * l'écran sont ignorés.
+ */
+public class AtlasRenderer implements Renderer {
+    private final BufferedImage background;
+    private final SpriteAtlas atlas;
+    private final int width;
+    private final int height;
+
+    /**
+     * Frame de chaque astéroïde visible de la frame en cours, et astéroïdes visibles regroupés par page :
+     * <code>order[pageStart[p]..pageStart[p + 1]-1]</code> sont les astéroïdes de la page <code>p</code>
+     */
+    private int[] frameOf = new int[0];
+    private int[] order = new int[0];
+    private final int[] pageStart;
+
+    public AtlasRenderer(BufferedImage background, List<SpriteSheet> spriteSheets) {
+        this.background = background;
+        this.width = background.getWidth();
+        this.height = background.getHeight();
+        GraphicsConfiguration configuration = GraphicsEnvironment.isHeadless() ? null
+                : GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+        this.atlas = new SpriteAtlas(spriteSheets, configuration);
+        this.pageStart = new int[atlas.pageCount() + 2];
+    }
+
+    @Override
+    public void render(Graphics2D g2d, Snapshot asteroids, long frame) {
+        g2d.drawImage(background, 0, 0, null);
+        int n = asteroids.size();
+        if (frameOf.length < n) {
+            frameOf = new int[n];
+            order = new int[n];
+        }
+
+        // Tri par dénombrement des astéroïdes visibles selon la page de leur frame
+        Arrays.fill(pageStart, 0);
+        for (int i = 0; i < n; i++) {
+            int f = atlas.frame(asteroids.sheet(i), (int) ((asteroids.sprite(i) + frame) / FRAMES_PER_SPRITE));
+            double r = asteroids.radius(i);
+            int left = (int) (asteroids.x(i) - r);
+            int top = (int) (height - asteroids.y(i) + r);
+            if (left >= width || top >= height || left + atlas.width(f) <= 0 || top + atlas.height(f) <= 0) {
+                frameOf[i] = -1;
+            } else {
+                frameOf[i] = f;
+                pageStart[atlas.pageOf(f) + 2]++;
+            }
+        }
+        for (int p = 2; p < pageStart.length; p++) {
+            pageStart[p] += pageStart[p - 1];
+        }
+        for (int i = 0; i < n; i++) {
+            if (frameOf[i] >= 0) {
+                order[pageStart[atlas.pageOf(frameOf[i]) + 1]++] = i;
+            }
+        }
+
+        int visible = pageStart[pageStart.length - 1];
+        for (int k = 0; k < visible; k++) {
+            int i = order[k];
+            double r = asteroids.radius(i);
+            atlas.draw(g2d, frameOf[i], (int) (asteroids.x(i) - r), (int) (height - asteroids.y(i) + r));
+        }
+    }
+}
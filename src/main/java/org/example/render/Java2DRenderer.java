@@ -0,0 +1,32 @@
+package org.example.render;
+
+import collisions.Snapshot;
+import collisions.SpriteSheet;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+/**
+ * Rendu par Java2D : un appel à <code>drawImage</code> par astéroïde.
+ */
+public class Java2DRenderer implements Renderer {
+    private final BufferedImage background;
+    private final List<SpriteSheet> spriteSheets;
+
+    public Java2DRenderer(BufferedImage background, List<SpriteSheet> spriteSheets) {
+        this.background = background;
+        this.spriteSheets = spriteSheets;
+    }
+
+    @Override
+    public void render(Graphics2D g2d, Snapshot asteroids, long frame) {
+        g2d.drawImage(background, 0, 0, null);
+        double screenHeight = background.getHeight();
+        for (int i = 0; i < asteroids.size(); i++) {
+            Image sprite = spriteSheets.get(asteroids.sheet(i)).getImage((int) ((asteroids.sprite(i) + frame) / FRAMES_PER_SPRITE));
+            double r = asteroids.radius(i);
+            g2d.drawImage(sprite, (int) (asteroids.x(i) - r), (int) (screenHeight - asteroids.y(i) + r), null);
+        }
+    }
+}
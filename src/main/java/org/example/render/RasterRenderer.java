@@ -0,0 +1,172 @@
+package org.example.render;
+
+import collisions.Snapshot;
+import collisions.SpriteSheet;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Rendu logiciel : les sprites sont recopiés directement dans le tableau de pixels d'une image
+ * <code>TYPE_INT_ARGB_PRE</code>, qui est ensuite affichée par un seul <code>drawImage</code>.
+ * <p>
+ * Les sprites ne font que quelques pixels de côté : le coût d'un appel à <code>Graphics.drawImage</code> dépasse de
+ * loin celui du remplissage. Ici, chaque astéroïde ne coûte que la composition de ses pixels, et ceux qui sont hors
+ * de l'écran (dans la marge de l'espace de simulation) sont ignorés.
+ */
+public class RasterRenderer implements Renderer {
+    /**
+     * Hauteur, en pixels, des bandes selon lesquelles les astéroïdes sont triés avant d'être dessinés
+     */
+    private static final int BAND_HEIGHT = 8;
+
+    private final int width;
+    private final int height;
+
+    /**
+     * Pixels du fond, recopiés au début de chaque frame
+     */
+    private final int[] background;
+
+    /**
+     * Image affichée et ses pixels
+     */
+    private final BufferedImage image;
+    private final int[] pixels;
+
+    /**
+     * Pixels prémultipliés de chaque sprite de chaque feuille : <code>sprites[feuille][sprite]</code>
+     */
+    private final int[][][] sprites;
+    private final int[] spriteWidths;
+    private final int[] spriteHeights;
+
+    /**
+     * Astéroïdes visibles de la frame en cours, triés par bande horizontale de <code>BAND_HEIGHT</code> pixels :
+     * <code>order[bandStart[b]..bandStart[b + 1]-1]</code> sont les astéroïdes de la bande <code>b</code>
+     */
+    private int[] order = new int[0];
+    private int[] bandOf = new int[0];
+    private final int[] bandStart;
+
+    public RasterRenderer(BufferedImage background, List<SpriteSheet> spriteSheets) {
+        this.width = background.getWidth();
+        this.height = background.getHeight();
+        this.bandStart = new int[(height + BAND_HEIGHT - 1) / BAND_HEIGHT + 2];
+        this.background = pixels(background);
+        this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        this.pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+
+        int nbSheets = spriteSheets.size();
+        sprites = new int[nbSheets][][];
+        spriteWidths = new int[nbSheets];
+        spriteHeights = new int[nbSheets];
+        for (int s = 0; s < nbSheets; s++) {
+            SpriteSheet sheet = spriteSheets.get(s);
+            sprites[s] = new int[sheet.size()][];
+            for (int k = 0; k < sheet.size(); k++) {
+                Image sprite = sheet.getImage(k);
+                spriteWidths[s] = sprite.getWidth(null);
+                spriteHeights[s] = sprite.getHeight(null);
+                sprites[s][k] = pixels(sprite);
+            }
+        }
+    }
+
+    /**
+     * @return les pixels prémultipliés de <code>image</code>
+     */
+    private static int[] pixels(Image image) {
+        BufferedImage copy = new BufferedImage(image.getWidth(null), image.getHeight(null), BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g = copy.createGraphics();
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+        return ((DataBufferInt) copy.getRaster().getDataBuffer()).getData();
+    }
+
+    @Override
+    public void render(Graphics2D g2d, Snapshot asteroids, long frame) {
+        System.arraycopy(background, 0, pixels, 0, pixels.length);
+        int visible = sortVisible(asteroids);
+        for (int k = 0; k < visible; k++) {
+            int i = order[k];
+            int sheet = asteroids.sheet(i);
+            double r = asteroids.radius(i);
+            int[][] animation = sprites[sheet];
+            int[] sprite = animation[(int) ((asteroids.sprite(i) + frame) / FRAMES_PER_SPRITE % animation.length)];
+            blit(sprite, spriteWidths[sheet], spriteHeights[sheet], (int) (asteroids.x(i) - r), (int) (height - asteroids.y(i) + r));
+        }
+        g2d.drawImage(image, 0, 0, null);
+    }
+
+    /**
+     * Trie par dénombrement les astéroïdes visibles selon la bande horizontale de leur bord haut. Dessinés dans cet
+     * ordre, les sprites successifs touchent les mêmes lignes de l'image, qui restent en cache : dans l'ordre des
+     * emplacements, chaque ligne de chaque sprite est un défaut de cache.
+     *
+     * @return le nombre d'astéroïdes visibles, rangés au début de <code>order</code>
+     */
+    private int sortVisible(Snapshot asteroids) {
+        int n = asteroids.size();
+        if (order.length < n) {
+            order = new int[n];
+            bandOf = new int[n];
+        }
+        Arrays.fill(bandStart, 0);
+        int nbBands = bandStart.length - 2;
+        for (int i = 0; i < n; i++) {
+            int sheet = asteroids.sheet(i);
+            double r = asteroids.radius(i);
+            int left = (int) (asteroids.x(i) - r);
+            int top = (int) (height - asteroids.y(i) + r);
+            if (left >= width || top >= height || left + spriteWidths[sheet] <= 0 || top + spriteHeights[sheet] <= 0) {
+                bandOf[i] = -1;
+            } else {
+                int band = Math.min(Math.max(top, 0) / BAND_HEIGHT, nbBands - 1);
+                bandOf[i] = band;
+                bandStart[band + 2]++;
+            }
+        }
+        for (int b = 2; b < bandStart.length; b++) {
+            bandStart[b] += bandStart[b - 1];
+        }
+        for (int i = 0; i < n; i++) {
+            if (bandOf[i] >= 0) {
+                order[bandStart[bandOf[i] + 1]++] = i;
+            }
+        }
+        return bandStart[bandStart.length - 1];
+    }
+
+    /**
+     * Compose (source over) le sprite <code>w</code>×<code>h</code> sur l'image, son coin haut gauche en
+     * <code>(left, top)</code>, en ignorant les pixels hors de l'image.
+     */
+    private void blit(int[] sprite, int w, int h, int left, int top) {
+        int x0 = Math.max(0, -left);
+        int x1 = Math.min(w, width - left);
+        int y0 = Math.max(0, -top);
+        int y1 = Math.min(h, height - top);
+        for (int y = y0; y < y1; y++) {
+            int src = y * w;
+            int dst = (top + y) * width + left;
+            for (int x = x0; x < x1; x++) {
+                // Sans branchement : un pixel opaque donne scale(d, 1) = 0, un pixel transparent s = 0
+                int s = sprite[src + x];
+                pixels[dst + x] = s + scale(pixels[dst + x], 256 - (s >>> 24));
+            }
+        }
+    }
+
+    /**
+     * @return les quatre composantes du pixel <code>argb</code> multipliées par <code>factor / 256</code>
+     */
+    private static int scale(int argb, int factor) {
+        int rb = ((argb & 0x00FF00FF) * factor >>> 8) & 0x00FF00FF;
+        int ag = (((argb >>> 8) & 0x00FF00FF) * factor) & 0xFF00FF00;
+        return ag | rb;
+    }
+}
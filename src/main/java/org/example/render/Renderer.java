@@ -0,0 +1,39 @@
+package org.example.render;
+
+import collisions.Snapshot;
+import collisions.SpriteSheet;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+/**
+ * Dessin d'un instantané de la simulation, fond compris.
+ */
+public interface Renderer {
+    /**
+     * Nombre de frames pendant lesquelles chaque sprite d'une animation reste affiché
+     */
+    int FRAMES_PER_SPRITE = 15;
+
+    /**
+     * Dessine <code>asteroids</code> dans <code>g2d</code>.
+     *
+     * @param frame numéro de la frame, qui fait avancer l'animation des sprites
+     */
+    void render(Graphics2D g2d, Snapshot asteroids, long frame);
+
+    /**
+     * @param name       <code>atlas</code>, <code>java2d</code> ou <code>raster</code>
+     * @param background image de fond, déjà à la taille de l'écran
+     * @throws IllegalArgumentException si <code>name</code> ne désigne aucun rendu
+     */
+    static Renderer byName(String name, BufferedImage background, List<SpriteSheet> spriteSheets) {
+        return switch (name) {
+            case "atlas" -> new AtlasRenderer(background, spriteSheets);
+            case "java2d" -> new Java2DRenderer(background, spriteSheets);
+            case "raster" -> new RasterRenderer(background, spriteSheets);
+            default -> throw new IllegalArgumentException("Unknown renderer: " + name);
+        };
+    }
+}
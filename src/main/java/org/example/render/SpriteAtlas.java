@@ -0,0 +1,159 @@
+package org.example.render;
+
+import collisions.SpriteSheet;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Toutes les frames de toutes les feuilles de sprites, regroupées dans quelques grandes images (les pages).
+ * <p>
+ * Les pages sont créées par {@link GraphicsConfiguration#createCompatibleImage}, au format de l'écran : Java2D peut
+ * alors les garder en mémoire vidéo et dessiner chaque frame par une copie accélérée d'un rectangle de la page, alors
+ * que les sous-images de {@link SpriteSheet} sont de simples vues d'une image générique. Les frames sont rangées par
+ * étagères, de gauche à droite puis de haut en bas ; une nouvelle page n'est commencée que si la précédente est
+ * pleine.
+ */
+public class SpriteAtlas {
+    /**
+     * Côté maximal d'une page, que toutes les cartes graphiques acceptent comme taille de texture
+     */
+    private static final int MAX_PAGE_SIZE = 2048;
+
+    private final List<Image> pages = new ArrayList<>();
+
+    /**
+     * Indice de la première frame de chaque feuille, et nombre de frames de chaque feuille
+     */
+    private final int[] firstFrame;
+    private final int[] frameCount;
+
+    /**
+     * Page et rectangle source de chaque frame
+     */
+    private final int[] page;
+    private final int[] x;
+    private final int[] y;
+    private final int[] width;
+    private final int[] height;
+
+    /**
+     * @param configuration configuration graphique de l'écran, ou <code>null</code> en l'absence d'écran
+     */
+    public SpriteAtlas(List<SpriteSheet> spriteSheets, GraphicsConfiguration configuration) {
+        int nbSheets = spriteSheets.size();
+        firstFrame = new int[nbSheets];
+        frameCount = new int[nbSheets];
+        int nbFrames = 0;
+        for (int s = 0; s < nbSheets; s++) {
+            firstFrame[s] = nbFrames;
+            frameCount[s] = spriteSheets.get(s).size();
+            nbFrames += frameCount[s];
+        }
+        page = new int[nbFrames];
+        x = new int[nbFrames];
+        y = new int[nbFrames];
+        width = new int[nbFrames];
+        height = new int[nbFrames];
+
+        // Placement des frames en étagères
+        List<Dimension> pageSizes = new ArrayList<>();
+        int shelfX = 0;
+        int shelfY = 0;
+        int shelfHeight = 0;
+        int currentPage = 0;
+        Dimension size = new Dimension();
+        pageSizes.add(size);
+        for (int s = 0; s < nbSheets; s++) {
+            for (int k = 0; k < frameCount[s]; k++) {
+                int f = firstFrame[s] + k;
+                Image sprite = spriteSheets.get(s).getImage(k);
+                width[f] = sprite.getWidth(null);
+                height[f] = sprite.getHeight(null);
+                if (shelfX + width[f] > MAX_PAGE_SIZE) {
+                    shelfX = 0;
+                    shelfY += shelfHeight;
+                    shelfHeight = 0;
+                }
+                if (shelfY + height[f] > MAX_PAGE_SIZE) {
+                    currentPage++;
+                    shelfX = 0;
+                    shelfY = 0;
+                    shelfHeight = 0;
+                    size = new Dimension();
+                    pageSizes.add(size);
+                }
+                page[f] = currentPage;
+                x[f] = shelfX;
+                y[f] = shelfY;
+                shelfX += width[f];
+                shelfHeight = Math.max(shelfHeight, height[f]);
+                size.width = Math.max(size.width, shelfX);
+                size.height = Math.max(size.height, shelfY + shelfHeight);
+            }
+        }
+
+        // Copie des frames dans les pages
+        List<Graphics2D> graphics = new ArrayList<>();
+        for (Dimension d : pageSizes) {
+            BufferedImage image = configuration != null
+                    ? configuration.createCompatibleImage(Math.max(d.width, 1), Math.max(d.height, 1), Transparency.TRANSLUCENT)
+                    : new BufferedImage(Math.max(d.width, 1), Math.max(d.height, 1), BufferedImage.TYPE_INT_ARGB_PRE);
+            pages.add(image);
+            Graphics2D g = image.createGraphics();
+            g.setComposite(AlphaComposite.Src);
+            graphics.add(g);
+        }
+        for (int s = 0; s < nbSheets; s++) {
+            for (int k = 0; k < frameCount[s]; k++) {
+                int f = firstFrame[s] + k;
+                graphics.get(page[f]).drawImage(spriteSheets.get(s).getImage(k), x[f], y[f], null);
+            }
+        }
+        graphics.forEach(Graphics::dispose);
+    }
+
+    /**
+     * @return l'indice, dans l'atlas, de la frame <code>sprite</code> (modulo le nombre de frames) de la feuille
+     * <code>sheet</code>
+     */
+    public int frame(int sheet, int sprite) {
+        return firstFrame[sheet] + sprite % frameCount[sheet];
+    }
+
+    public int pageCount() {
+        return pages.size();
+    }
+
+    public Image page(int index) {
+        return pages.get(index);
+    }
+
+    /**
+     * @return l'indice de la page contenant la frame <code>frame</code>
+     */
+    public int pageOf(int frame) {
+        return page[frame];
+    }
+
+    /**
+     * Dessine la frame <code>frame</code>, son coin haut gauche en <code>(left, top)</code>.
+     */
+    public void draw(Graphics2D g2d, int frame, int left, int top) {
+        int sx = x[frame];
+        int sy = y[frame];
+        int w = width[frame];
+        int h = height[frame];
+        g2d.drawImage(pages.get(page[frame]), left, top, left + w, top + h, sx, sy, sx + w, sy + h, null);
+    }
+
+    public int width(int frame) {
+        return width[frame];
+    }
+
+    public int height(int frame) {
+        return height[frame];
+    }
+}
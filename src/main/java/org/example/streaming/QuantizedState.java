@@ -0,0 +1,131 @@
+package org.example.streaming;
+
+import collisions.AsteroidField;
+import collisions.Snapshot;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static collisions.VarInts.*;
+import static collisions.streaming.StreamFormat.*;
+
+/**
+ * État des astéroïdes tel qu'il circule dans le flux : positions et rayons quantifiés, feuilles et sprites. Le
+ * serveur en garde une copie par trame encodée, le client la met à jour à chaque trame reçue.
+ */
+final class QuantizedState {
+    private int[] x = new int[0];
+    private int[] y = new int[0];
+    private int[] radius = new int[0];
+    private int[] sheet = new int[0];
+    private int[] sprite = new int[0];
+    private int size;
+    private long tick = -1;
+
+    int size() {
+        return size;
+    }
+
+    long tick() {
+        return tick;
+    }
+
+    /**
+     * Remplace l'état par celui de <code>snapshot</code>, quantifié
+     */
+    void quantize(Snapshot snapshot) {
+        int n = snapshot.size();
+        ensureCapacity(n);
+        for (int i = 0; i < n; i++) {
+            x[i] = StreamFormat.quantize(snapshot.x(i));
+            y[i] = StreamFormat.quantize(snapshot.y(i));
+            radius[i] = StreamFormat.quantize(snapshot.radius(i));
+            sheet[i] = snapshot.sheet(i);
+            sprite[i] = snapshot.sprite(i);
+        }
+        size = n;
+        tick = snapshot.tick();
+    }
+
+    /**
+     * Écrit dans <code>buffer</code> une trame <code>DELTA</code> par rapport à <code>previous</code>, ou une trame
+     * <code>KEYFRAME</code> si <code>previous</code> est <code>null</code>, longueur comprise.
+     *
+     * @param buffer tampon d'au moins {@link #maxFrameBytes()} octets restants
+     */
+    void encode(ByteBuffer buffer, QuantizedState previous) {
+        int start = buffer.position();
+        buffer.putInt(0);
+        buffer.put(previous == null ? KEYFRAME : DELTA);
+        putVarLong(buffer, tick);
+        putVarLong(buffer, size);
+        int common = previous == null ? 0 : Math.min(size, previous.size);
+        for (int i = 0; i < size; i++) {
+            boolean attributes = i >= common || radius[i] != previous.radius[i] || sheet[i] != previous.sheet[i]
+                    || sprite[i] != previous.sprite[i];
+            long dx = i < common ? (long) x[i] - previous.x[i] : x[i];
+            long dy = i < common ? (long) y[i] - previous.y[i] : y[i];
+            putVarLong(buffer, zigzag(dx) << 1 | (attributes ? 1 : 0));
+            putVarLong(buffer, zigzag(dy));
+            if (attributes) {
+                putVarLong(buffer, radius[i]);
+                putVarLong(buffer, sheet[i]);
+                putVarLong(buffer, sprite[i]);
+            }
+        }
+        buffer.putInt(start, buffer.position() - start - 4);
+    }
+
+    int maxFrameBytes() {
+        return MAX_HEADER_BYTES + size * MAX_ENTRY_BYTES;
+    }
+
+    /**
+     * Applique la trame <code>frame</code>, sans sa longueur, à l'état courant
+     *
+     * @throws IllegalArgumentException si ce n'est ni une trame <code>KEYFRAME</code> ni une trame <code>DELTA</code>
+     */
+    void decode(ByteBuffer frame) {
+        byte kind = frame.get();
+        if (kind != KEYFRAME && kind != DELTA) {
+            throw new IllegalArgumentException("Unexpected stream message " + kind);
+        }
+        tick = getVarLong(frame);
+        int n = getVarInt(frame);
+        int common = kind == KEYFRAME ? 0 : Math.min(n, size);
+        ensureCapacity(n);
+        for (int i = 0; i < n; i++) {
+            long dx = getVarLong(frame);
+            boolean attributes = (dx & 1) != 0;
+            x[i] = (int) ((i < common ? x[i] : 0) + unzigzag(dx >>> 1));
+            y[i] = (int) ((i < common ? y[i] : 0) + unzigzag(getVarLong(frame)));
+            if (attributes) {
+                radius[i] = getVarInt(frame);
+                sheet[i] = getVarInt(frame);
+                sprite[i] = getVarInt(frame);
+            }
+        }
+        size = n;
+    }
+
+    /**
+     * Remplace le contenu de <code>field</code> par l'état courant, d'identifiants les indices et de vitesses nulles
+     */
+    void copyTo(AsteroidField field) {
+        field.truncate(0);
+        for (int i = 0; i < size; i++) {
+            field.restore(i, i, dequantize(x[i]), dequantize(y[i]), 0, 0, dequantize(radius[i]), sheet[i], sprite[i]);
+        }
+    }
+
+    private void ensureCapacity(int n) {
+        if (x.length < n) {
+            int capacity = Math.max(n, x.length * 2);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            radius = Arrays.copyOf(radius, capacity);
+            sheet = Arrays.copyOf(sheet, capacity);
+            sprite = Arrays.copyOf(sprite, capacity);
+        }
+    }
+}
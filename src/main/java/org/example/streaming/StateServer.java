@@ -0,0 +1,406 @@
+package org.example.streaming;
+
+import collisions.AsteroidField;
+import collisions.Snapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static collisions.streaming.StreamFormat.*;
+
+/**
+ * Diffuse l'état de la simulation à tous les {@link StreamClient} connectés, sur un thread unique qui gère toutes les
+ * connexions avec un {@link Selector} (voir {@link StreamFormat}).
+ * <p>
+ * Le thread de simulation appelle {@link #publish} après chaque cycle : au plus <code>fps</code> fois par seconde, et
+ * seulement si des clients sont connectés, l'état est copié dans un {@link Snapshot} échangé avec le thread du serveur
+ * comme dans {@link collisions.SimulationLoop}. La simulation n'attend jamais le réseau.
+ * <p>
+ * Chaque instantané est encodé une seule fois en trame <code>DELTA</code> par rapport au précédent, et au besoin en
+ * trame <code>KEYFRAME</code>, partagées par tous les clients. Un client qui n'a pas fini de recevoir la trame
+ * précédente (tampon d'émission du socket plein) saute la trame : il recevra ensuite une <code>KEYFRAME</code>, ses
+ * trames <code>DELTA</code> ne s'appliquant qu'à la trame qui les précède. Un client lent perd donc des trames sans
+ * ralentir ni la simulation ni les autres clients.
+ */
+public class StateServer implements Closeable {
+    /**
+     * Nombre maximal de trames diffusées par seconde par défaut
+     */
+    public static final int DEFAULT_FPS = 30;
+
+    private final int width;
+    private final int height;
+    private final int port;
+
+    /**
+     * Durée minimale entre deux publications, en nanosecondes
+     */
+    private final long period;
+
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final Thread thread;
+
+    /**
+     * Instantanés échangés entre le thread de simulation (<code>back</code>) et celui du serveur
+     * (<code>front</code>), voir {@link collisions.SimulationLoop}
+     */
+    private final AtomicReference<Snapshot> published = new AtomicReference<>(new Snapshot());
+    private Snapshot back = new Snapshot();
+    private Snapshot front = new Snapshot();
+    private long lastPublish;
+
+    /**
+     * États quantifiés de l'instantané en cours de diffusion et du précédent, propriétés du thread du serveur
+     */
+    private QuantizedState current = new QuantizedState();
+    private QuantizedState previous = null;
+
+    private final List<Client> clients = new ArrayList<>();
+
+    /**
+     * Tampons de trames qu'aucun client n'est en train d'envoyer
+     */
+    private final ArrayDeque<Frame> free = new ArrayDeque<>();
+
+    /**
+     * Tampon de lecture, dont le contenu est ignoré
+     */
+    private final ByteBuffer ignored = ByteBuffer.allocate(256);
+
+    /**
+     * Statistiques, mises à jour par le thread du serveur
+     */
+    private volatile int connected;
+    private volatile long framesSent;
+    private volatile long framesDropped;
+    private volatile long bytesSent;
+
+    private volatile boolean closed;
+
+    /**
+     * Ouvre le serveur sur <code>address</code> (port 0 pour un port libre, voir {@link #port()}) et démarre son
+     * thread.
+     *
+     * @param width  largeur de l'écran simulé, transmise aux clients
+     * @param height hauteur de l'écran simulé
+     * @param fps    nombre maximal de trames diffusées par seconde
+     * @throws IOException si le port ne peut être ouvert
+     */
+    public StateServer(InetSocketAddress address, int width, int height, int fps) throws IOException {
+        if (fps < 1) {
+            throw new IllegalArgumentException("Frame rate must be positive: " + fps);
+        }
+        this.width = width;
+        this.height = height;
+        this.period = 1_000_000_000L / fps;
+        this.lastPublish = System.nanoTime() - period;
+        this.selector = Selector.open();
+        try {
+            this.server = ServerSocketChannel.open();
+            server.bind(address);
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+            this.port = ((InetSocketAddress) server.getLocalAddress()).getPort();
+        } catch (IOException | RuntimeException e) {
+            selector.close();
+            throw e;
+        }
+        this.thread = new Thread(this::run, "stream-server");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * @return le port sur lequel le serveur accepte les connexions
+     */
+    public int port() {
+        return port;
+    }
+
+    public int clients() {
+        return connected;
+    }
+
+    /**
+     * @return le nombre de trames envoyées (ou en cours d'envoi) et sautées, tous clients confondus
+     */
+    public long framesSent() {
+        return framesSent;
+    }
+
+    public long framesDropped() {
+        return framesDropped;
+    }
+
+    public long bytesSent() {
+        return bytesSent;
+    }
+
+    /**
+     * Publie l'état de <code>field</code> au cycle <code>tick</code>. Doit toujours être appelé depuis le même
+     * thread (celui de la simulation) ; sans effet sans client connecté ou moins de <code>1 / fps</code> secondes
+     * après la publication précédente.
+     */
+    public void publish(AsteroidField field, long tick) {
+        if (connected == 0 || closed) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (now - lastPublish < period) {
+            return;
+        }
+        lastPublish = now;
+        back.capture(field, tick);
+        back = published.getAndSet(back);
+        selector.wakeup();
+    }
+
+    private void run() {
+        try {
+            while (!closed) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Client client = (Client) key.attachment();
+                    try {
+                        if (key.isReadable()) {
+                            client.read();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            client.flush();
+                        }
+                    } catch (IOException e) {
+                        client.close();
+                    }
+                }
+                broadcast();
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                e.printStackTrace();
+            }
+        } finally {
+            for (Client client : new ArrayList<>(clients)) {
+                client.close();
+            }
+            try {
+                server.close();
+                selector.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        Client client = new Client(channel);
+        client.key = channel.register(selector, SelectionKey.OP_READ, client);
+        clients.add(client);
+        connected = clients.size();
+        ByteBuffer hello = ByteBuffer.allocate(HELLO_BYTES);
+        hello.putInt(HELLO_BYTES - 4).put(HELLO).putInt(MAGIC).putInt(VERSION).putInt(width).putInt(height);
+        client.pending = hello.flip();
+        try {
+            client.flush();
+        } catch (IOException e) {
+            client.close();
+        }
+    }
+
+    /**
+     * Encode le dernier instantané publié, s'il est nouveau, et l'envoie aux clients prêts à le recevoir
+     */
+    private void broadcast() {
+        if (published.get().tick() <= front.tick()) {
+            return;
+        }
+        front = published.getAndSet(front);
+        current.quantize(front);
+        Frame delta = null;
+        Frame keyframe = null;
+        for (Client client : new ArrayList<>(clients)) {
+            if (client.busy()) {
+                client.needsKeyframe = true;
+                framesDropped++;
+                continue;
+            }
+            Frame frame;
+            if (client.needsKeyframe || previous == null) {
+                keyframe = keyframe == null ? encode(null) : keyframe;
+                frame = keyframe;
+            } else {
+                delta = delta == null ? encode(previous) : delta;
+                frame = delta;
+            }
+            client.needsKeyframe = false;
+            try {
+                client.send(frame);
+            } catch (IOException e) {
+                client.close();
+            }
+        }
+        release(delta);
+        release(keyframe);
+        QuantizedState swap = previous == null ? new QuantizedState() : previous;
+        previous = current;
+        current = swap;
+    }
+
+    /**
+     * @return une trame encodée à partir de <code>current</code>, avec un utilisateur : l'appelant
+     */
+    private Frame encode(QuantizedState reference) {
+        int bytes = current.maxFrameBytes();
+        Frame frame = free.poll();
+        if (frame == null || frame.data.capacity() < bytes) {
+            frame = new Frame(ByteBuffer.allocateDirect(Math.max(bytes, frame == null ? 0 : 2 * frame.data.capacity())));
+        }
+        frame.data.clear();
+        current.encode(frame.data, reference);
+        frame.data.flip();
+        frame.users = 1;
+        return frame;
+    }
+
+    private void release(Frame frame) {
+        if (frame != null && --frame.users == 0) {
+            free.push(frame);
+        }
+    }
+
+    /**
+     * Ferme le serveur et toutes ses connexions, et attend la fin de son thread
+     */
+    @Override
+    public void close() {
+        closed = true;
+        selector.wakeup();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Trame encodée, partagée par les clients qui l'envoient
+     */
+    private static final class Frame {
+        final ByteBuffer data;
+        int users;
+
+        Frame(ByteBuffer data) {
+            this.data = data;
+        }
+    }
+
+    /**
+     * Connexion d'un client, et message en cours d'envoi
+     */
+    private final class Client {
+        final SocketChannel channel;
+        SelectionKey key;
+
+        /**
+         * Reste à envoyer du message en cours, et trame dont il est une vue (<code>null</code> pour
+         * <code>HELLO</code>)
+         */
+        ByteBuffer pending;
+        Frame frame;
+
+        /**
+         * Vrai si le client n'a pas reçu la dernière trame encodée
+         */
+        boolean needsKeyframe = true;
+
+        Client(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        boolean busy() {
+            return pending != null && pending.hasRemaining();
+        }
+
+        void send(Frame frame) throws IOException {
+            frame.users++;
+            this.frame = frame;
+            this.pending = frame.data.duplicate();
+            framesSent++;
+            flush();
+        }
+
+        /**
+         * Envoie ce que le socket accepte sans bloquer du message en cours, et attend de pouvoir écrire s'il en reste
+         */
+        void flush() throws IOException {
+            if (pending == null) {
+                return;
+            }
+            bytesSent += channel.write(pending);
+            if (pending.hasRemaining()) {
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            } else {
+                pending = null;
+                release(frame);
+                frame = null;
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        }
+
+        /**
+         * Les clients n'envoient rien : la lecture ne sert qu'à détecter la fin de la connexion
+         */
+        void read() throws IOException {
+            int read;
+            while ((read = channel.read(ignored)) > 0) {
+                ignored.clear();
+            }
+            if (read < 0) {
+                close();
+            }
+        }
+
+        void close() {
+            if (!clients.remove(this)) {
+                return;
+            }
+            connected = clients.size();
+            release(frame);
+            frame = null;
+            pending = null;
+            try {
+                channel.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
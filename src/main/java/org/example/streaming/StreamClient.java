@@ -0,0 +1,215 @@
+package org.example.streaming;
+
+import collisions.AsteroidField;
+import collisions.Snapshot;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static collisions.streaming.StreamFormat.*;
+
+/**
+ * Reçoit le flux d'un {@link StateServer} sur son propre thread, et publie après chaque trame un {@link Snapshot} de
+ * l'état reconstruit, échangé avec le thread d'affichage comme dans {@link collisions.SimulationLoop}.
+ * <p>
+ * Usage sans affichage : <code>StreamClient [hôte] [port] [secondes]</code> affiche le débit reçu, par exemple pour
+ * vérifier un serveur en boucle locale.
+ */
+public class StreamClient implements Closeable {
+    private final SocketChannel channel;
+    private final int width;
+    private final int height;
+
+    /**
+     * Tampon du message en cours de lecture, agrandi au besoin
+     */
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+
+    /**
+     * État reconstruit, et sa copie en coordonnées réelles
+     */
+    private final QuantizedState state = new QuantizedState();
+    private final AsteroidField field = new AsteroidField(16);
+
+    private final AtomicReference<Snapshot> published = new AtomicReference<>(new Snapshot());
+    private Snapshot back = new Snapshot();
+    private Snapshot front = new Snapshot();
+
+    private Thread thread;
+
+    private volatile long frames;
+    private volatile long keyframes;
+    private volatile long bytes;
+
+    /**
+     * Se connecte au serveur <code>address</code> et lit son message <code>HELLO</code>.
+     *
+     * @throws IOException si la connexion échoue ou si le serveur n'envoie pas un flux de simulation
+     */
+    public StreamClient(InetSocketAddress address) throws IOException {
+        this.channel = SocketChannel.open(address);
+        try {
+            ByteBuffer hello = read();
+            if (hello == null || hello.remaining() < HELLO_BYTES - 4 || hello.get() != HELLO || hello.getInt() != MAGIC) {
+                throw new IOException("Not a simulation stream: " + address);
+            }
+            int version = hello.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported stream version: " + version);
+            }
+            this.width = hello.getInt();
+            this.height = hello.getInt();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return la taille de l'écran simulé par le serveur
+     */
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    /**
+     * @return le nombre de trames, d'images clés et d'octets reçus
+     */
+    public long frames() {
+        return frames;
+    }
+
+    public long keyframes() {
+        return keyframes;
+    }
+
+    public long bytes() {
+        return bytes;
+    }
+
+    /**
+     * Démarre le thread de réception.
+     *
+     * @param onFrame action exécutée par le thread de réception après chaque trame, typiquement
+     *                {@link java.awt.Component#repaint()}
+     */
+    public synchronized void start(Runnable onFrame) {
+        if (thread != null) {
+            throw new IllegalStateException("Client already started");
+        }
+        thread = new Thread(() -> receive(onFrame), "stream-client");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void receive(Runnable onFrame) {
+        try {
+            ByteBuffer frame;
+            while ((frame = read()) != null) {
+                if (frame.get(frame.position()) == KEYFRAME) {
+                    keyframes++;
+                }
+                state.decode(frame);
+                state.copyTo(field);
+                back.capture(field, state.tick());
+                back = published.getAndSet(back);
+                frames++;
+                onFrame.run();
+            }
+        } catch (IOException | RuntimeException e) {
+            if (channel.isOpen()) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * @return le message suivant, sans sa longueur, ou <code>null</code> si le serveur a fermé la connexion
+     * @throws EOFException si la connexion est fermée au milieu d'un message
+     */
+    private ByteBuffer read() throws IOException {
+        buffer.clear().limit(4);
+        if (!readFully(true)) {
+            return null;
+        }
+        int length = buffer.getInt(0);
+        if (length < 1) {
+            throw new IOException("Corrupted stream: message of " + length + " bytes");
+        }
+        if (buffer.capacity() < length) {
+            buffer = ByteBuffer.allocateDirect(Math.max(length, buffer.capacity() * 2));
+        }
+        buffer.clear().limit(length);
+        readFully(false);
+        bytes += 4 + length;
+        return buffer.flip();
+    }
+
+    /**
+     * Remplit <code>buffer</code> jusqu'à sa limite.
+     *
+     * @param atBoundary vrai si la connexion peut se terminer avant le premier octet
+     * @return <code>false</code> si la connexion s'est terminée avant le premier octet
+     */
+    private boolean readFully(boolean atBoundary) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                if (atBoundary && buffer.position() == 0) {
+                    return false;
+                }
+                throw new EOFException("Stream closed in the middle of a message");
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Doit toujours être appelé depuis le même thread (celui de l'affichage). L'instantané renvoyé n'est pas modifié
+     * avant l'appel suivant.
+     *
+     * @return l'instantané le plus récent
+     */
+    public Snapshot latest() {
+        if (published.get().tick() > front.tick()) {
+            front = published.getAndSet(front);
+        }
+        return front;
+    }
+
+    /**
+     * Ferme la connexion, ce qui termine le thread de réception
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 7000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        try (StreamClient client = new StreamClient(new InetSocketAddress(host, port))) {
+            System.out.printf("screen             %dx%d%n", client.width(), client.height());
+            client.start(() -> {
+            });
+            long start = System.nanoTime();
+            Thread.sleep(seconds * 1000L);
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            Snapshot last = client.latest();
+            System.out.printf("frames             %d (%d keyframes)%n", client.frames(), client.keyframes());
+            System.out.printf("frames/s           %.1f%n", client.frames() / elapsed);
+            System.out.printf("received           %.2f MB/s, %.0f B/frame%n", client.bytes() / elapsed / 1e6,
+                    (double) client.bytes() / Math.max(1, client.frames()));
+            System.out.printf("last tick          %d, %d asteroids%n", last.tick(), last.size());
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.streaming;
+
+/**
+ * Format du flux envoyé par {@link StateServer} à chaque {@link StreamClient}.
+ * <p>
+ * Chaque message est précédé de sa longueur en octets (<code>int</code>) et commence par son type (un octet) :
+ * <ul>
+ * <li> <code>HELLO</code>, premier message de la connexion : <code>MAGIC</code>, <code>VERSION</code>, largeur et
+ * hauteur de l'écran simulé (<code>int</code>) ;
+ * <li> <code>KEYFRAME</code> et <code>DELTA</code> : numéro du cycle et nombre d'astéroïdes (varints, voir
+ * {@link collisions.VarInts}), puis une entrée par astéroïde, dans l'ordre des indices.
+ * </ul>
+ * Les positions et les rayons sont quantifiés au <code>1 / QUANTUM</code> de pixel. L'entrée d'un astéroïde contient
+ * l'écart de ses coordonnées quantifiées avec celles de l'astéroïde de même indice dans la trame précédente, en
+ * zigzag (varints) ; le bit de poids faible de l'écart en x signale que suivent le rayon, la feuille et le sprite de
+ * l'astéroïde (varints), à la place de ceux de la trame précédente. Une trame <code>KEYFRAME</code> est une trame
+ * <code>DELTA</code> par rapport à une trame vide : elle ne dépend d'aucune autre.
+ */
+final class StreamFormat {
+    static final int MAGIC = 0x41535453;
+    static final int VERSION = 1;
+
+    static final byte HELLO = 1;
+    static final byte KEYFRAME = 2;
+    static final byte DELTA = 3;
+
+    /**
+     * Nombre de pas de quantification par pixel
+     */
+    static final int QUANTUM = 8;
+
+    static final int HELLO_BYTES = 4 + 1 + 4 + 4 + 4 + 4;
+
+    /**
+     * Taille maximale de l'en-tête d'une trame, longueur comprise
+     */
+    static final int MAX_HEADER_BYTES = 4 + 1 + 10 + 5;
+
+    /**
+     * Taille maximale de l'entrée d'un astéroïde
+     */
+    static final int MAX_ENTRY_BYTES = 10 + 10 + 5 + 5 + 5;
+
+    private StreamFormat() {
+    }
+
+    static int quantize(double value) {
+        return (int) Math.round(value * QUANTUM);
+    }
+
+    static double dequantize(int value) {
+        return (double) value / QUANTUM;
+    }
+
+    /**
+     * @return <code>value</code> en zigzag : les petites valeurs négatives deviennent de petits entiers positifs
+     */
+    static long zigzag(long value) {
+        return value << 1 ^ value >> 63;
+    }
+
+    static long unzigzag(long value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.streaming;
+
+import collisions.Board;
+import collisions.Simulation;
+import collisions.Snapshot;
+import collisions.SpriteSheet;
+import collisions.render.Renderer;
+
+import javax.imageio.ImageIO;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Affiche la simulation diffusée par un {@link StateServer} distant, avec les images et les rendus du
+ * {@link Board} : chaque trame reçue déclenche un affichage du dernier instantané reconstruit.
+ * <p>
+ * Usage : <code>StreamViewer [hôte] [port]</code>, avec la propriété système <code>renderer</code> (voir
+ * {@link Renderer#byName}).
+ */
+public class StreamViewer extends JPanel {
+    private final StreamClient client;
+    private final Renderer renderer;
+
+    /**
+     * Nombre de frames affichées, qui fait avancer l'animation des sprites
+     */
+    private long frames = 0;
+
+    /**
+     * @throws IOException si les images ne peuvent être chargées
+     */
+    public StreamViewer(StreamClient client) throws IOException {
+        this.client = client;
+        int width = client.width();
+        int height = client.height();
+        var backgroundFile = Optional.ofNullable(Board.class.getResource("background.png")).orElseThrow(FileNotFoundException::new);
+        BufferedImage background = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g = background.createGraphics();
+        g.drawImage(ImageIO.read(backgroundFile).getScaledInstance(width, height, Image.SCALE_DEFAULT), 0, 0, null);
+        g.dispose();
+        List<SpriteSheet> spriteSheets = Arrays.asList(SpriteSheet.fromResource("asteroid_sheet_1.png", 3 * Simulation.RADIUS, 4, 8), SpriteSheet.fromResource("asteroid_sheet_2.png", 3 * Simulation.RADIUS, 4, 8));
+        this.renderer = Renderer.byName(System.getProperty("renderer", "java2d"), background, spriteSheets);
+        setPreferredSize(new Dimension(width, height));
+        client.start(this::repaint);
+    }
+
+    @Override
+    public void paintComponent(Graphics graphics) {
+        Snapshot asteroids = client.latest();
+        super.paintComponent(graphics);
+        renderer.render((Graphics2D) graphics, asteroids, frames++);
+        Toolkit.getDefaultToolkit().sync();
+    }
+
+    public static void main(String[] args) throws IOException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 7000;
+        StreamClient client = new StreamClient(new InetSocketAddress(host, port));
+        EventQueue.invokeLater(() -> {
+            JFrame frame = new JFrame("Asteroids — " + host + ":" + port);
+            try {
+                frame.add(new StreamViewer(client));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            frame.pack();
+            frame.setLocationRelativeTo(null);
+            frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+            frame.setVisible(true);
+        });
+    }
+}